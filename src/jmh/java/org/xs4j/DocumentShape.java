@@ -0,0 +1,64 @@
+package org.xs4j;
+
+/**
+ * Shapes of the documents used by the benchmarks, generated with {@link CorpusGenerator}. Each document is made of
+ * <code>Record</code> elements placed under the <code>Records</code> root element, with every record holding an
+ * <code>id</code> attribute.
+ */
+public enum DocumentShape {
+    /**
+     * Records being immediate children of the root, each holding a short text.
+     */
+    FLAT {
+        @Override
+        CorpusGenerator configure(CorpusGenerator generator) {
+            return generator.withTextLength(8);
+        }
+    },
+    /**
+     * Records nested in 32 levels of <code>Group</code> elements.
+     */
+    DEEP {
+        @Override
+        CorpusGenerator configure(CorpusGenerator generator) {
+            return generator.withDepth(32).withTextLength(8);
+        }
+    },
+    /**
+     * Records holding 16 attributes each and no text.
+     */
+    ATTRIBUTE_HEAVY {
+        @Override
+        CorpusGenerator configure(CorpusGenerator generator) {
+            return generator.withAttributeCount(16);
+        }
+    },
+    /**
+     * Records holding 1024 characters of text each.
+     */
+    TEXT_HEAVY {
+        @Override
+        CorpusGenerator configure(CorpusGenerator generator) {
+            return generator.withTextLength(1024);
+        }
+    },
+    /**
+     * Records holding 4 fields each, with records nested within records 4 levels down.
+     */
+    RECURSIVE {
+        @Override
+        CorpusGenerator configure(CorpusGenerator generator) {
+            return generator.withFanOut(4).withRecursionDepth(4).withTextLength(8);
+        }
+    };
+
+    /**
+     * @param recordCount number of top level <code>Record</code> elements
+     * @return UTF-8 encoded document
+     */
+    public byte[] generate(int recordCount) {
+        return configure(CorpusGenerator.getInstance().withRecordCount(recordCount)).generate();
+    }
+
+    abstract CorpusGenerator configure(CorpusGenerator generator);
+}
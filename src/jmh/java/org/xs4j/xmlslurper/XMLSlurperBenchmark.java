@@ -0,0 +1,108 @@
+package org.xs4j.xmlslurper;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xs4j.DocumentShape;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of the documents of every {@link DocumentShape} with a single matching path of each kind, while
+ * <code>pathCount - 1</code> paths matching nothing are registered next to it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XMLSlurperBenchmark {
+    private static final int RECORD_COUNT = 10000;
+
+    @Param({"FLAT", "DEEP", "ATTRIBUTE_HEAVY", "TEXT_HEAVY", "RECURSIVE"})
+    public DocumentShape shape;
+
+    @Param({"SAX", "StAX"})
+    public String parser;
+
+    @Param({"1", "64"})
+    public int pathCount;
+
+    private byte[] document;
+    private XMLSlurperFactory xmlSlurperFactory;
+
+    @Setup
+    public void setup() {
+        document = shape.generate(RECORD_COUNT);
+
+        xmlSlurperFactory = XMLSlurperFactory.getInstance();
+        if (parser.equals("StAX"))
+            xmlSlurperFactory.enableStAXParsing();
+    }
+
+    @Benchmark
+    public void simplePath(Blackhole blackhole) throws Exception {
+        XMLSlurper xmlSlurper = createXMLSlurper(blackhole);
+
+        xmlSlurper.getNodes("Records", "Record").findAll(new ConsumingNodeListener(blackhole));
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+    }
+
+    @Benchmark
+    public void siblingPath(Blackhole blackhole) throws Exception {
+        XMLSlurper xmlSlurper = createXMLSlurper(blackhole);
+
+        xmlSlurper.getNodes("Records", "*").findAll(new ConsumingNodeListener(blackhole));
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+    }
+
+    @Benchmark
+    public void descendantPath(Blackhole blackhole) throws Exception {
+        XMLSlurper xmlSlurper = createXMLSlurper(blackhole);
+
+        xmlSlurper.getNodes("**", "Record").findAll(new ConsumingNodeListener(blackhole));
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+    }
+
+    @Benchmark
+    public void nthNode(Blackhole blackhole) throws Exception {
+        XMLSlurper xmlSlurper = createXMLSlurper(blackhole);
+
+        xmlSlurper.getNodes("**", "Record").get(RECORD_COUNT / 2).findAll(new ConsumingNodeListener(blackhole));
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+    }
+
+    @Benchmark
+    public void attributePredicate(Blackhole blackhole) throws Exception {
+        XMLSlurper xmlSlurper = createXMLSlurper(blackhole);
+
+        xmlSlurper.getNodes("**", "Record").attr("id").regex("[0-9]*0").findAll(new ConsumingNodeListener(blackhole));
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+    }
+
+    private XMLSlurper createXMLSlurper(Blackhole blackhole) {
+        XMLSlurper xmlSlurper = xmlSlurperFactory.createXMLSlurper();
+
+        ConsumingNodeListener listener = new ConsumingNodeListener(blackhole);
+        for (int index = 1; index < pathCount; index++)
+            xmlSlurper.getNodes("Records", "Record", "Missing" + index).findAll(listener);
+
+        return xmlSlurper;
+    }
+
+    private static class ConsumingNodeListener implements NodeListener {
+        private final Blackhole blackhole;
+
+        private ConsumingNodeListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onNode(@NotNull XMLNode node) {
+            blackhole.consume(node);
+        }
+    }
+}
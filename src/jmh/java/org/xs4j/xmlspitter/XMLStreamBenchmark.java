@@ -0,0 +1,99 @@
+package org.xs4j.xmlspitter;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xs4j.DocumentShape;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+import org.xs4j.xmlslurper.NodeListener;
+import org.xs4j.xmlslurper.XMLSlurper;
+import org.xs4j.xmlslurper.XMLSlurperFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing of the records of every {@link DocumentShape} with both {@link InternalStream} and
+ * {@link StAXStream}. The nodes are slurped once upfront, so only the writing is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XMLStreamBenchmark {
+    private static final int RECORD_COUNT = 10000;
+
+    @Param({"FLAT", "ATTRIBUTE_HEAVY", "TEXT_HEAVY"})
+    public DocumentShape shape;
+
+    @Param({"Internal", "StAX"})
+    public String stream;
+
+    private final List<XMLNode> nodes = new ArrayList<XMLNode>();
+    private XMLSpitter xmlSpitter;
+
+    @Setup
+    public void setup() throws Exception {
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createXMLSlurper();
+        xmlSlurper.getNodes("Records", "Record").findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                nodes.add(node);
+            }
+        });
+        xmlSlurper.parse(new ByteArrayInputStream(shape.generate(RECORD_COUNT)));
+
+        if (stream.equals("StAX"))
+            xmlSpitter = StAXSpitterFactory.getInstance().createXMLSpitter();
+        else
+            xmlSpitter = InternalSpitterFactory.getInstance().createXMLSpitter();
+    }
+
+    @Benchmark
+    public void writeElements(Blackhole blackhole) {
+        XMLStream xmlStream = xmlSpitter.createStream(new ConsumingOutputStream(blackhole));
+
+        xmlStream.writeStartDocument();
+        for (XMLNode node : nodes)
+            xmlStream.writeElement(node);
+        xmlStream.flush();
+        xmlStream.close();
+    }
+
+    @Benchmark
+    public void writeStartAndEndElements(Blackhole blackhole) {
+        XMLStream xmlStream = xmlSpitter.createStream(new ConsumingOutputStream(blackhole));
+
+        xmlStream.writeStartDocument();
+        for (XMLNode node : nodes) {
+            xmlStream.writeStartElement(node);
+            xmlStream.writeCharacters(node);
+            xmlStream.writeEndElement(node);
+        }
+        xmlStream.flush();
+        xmlStream.close();
+    }
+
+    private static class ConsumingOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        private ConsumingOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+        }
+    }
+}
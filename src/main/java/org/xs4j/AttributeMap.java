@@ -0,0 +1,199 @@
+package org.xs4j;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * Compact storage of the attributes of a single {@link XMLNode}. Names and values are kept in parallel arrays in
+ * insertion order and are looked up with a linear scan, which beats hashing for the few attributes most elements
+ * have. An index is built only once the number of attributes exceeds {@link AttributeMap#LINEAR_SCAN_LIMIT}.
+ * {@link AttributeMap#EMPTY} is shared by all the nodes without attributes and is read-only. Neither null names nor
+ * null values are permitted.
+ */
+public final class AttributeMap extends AbstractMap<String, String> {
+    public static final AttributeMap EMPTY = new AttributeMap(0, true);
+
+    private static final String READ_ONLY = "Shared empty attributes are read-only";
+    private static final int DEFAULT_SIZE = 4;
+    private static final int LINEAR_SCAN_LIMIT = 8;
+    private static final String[] NO_STRINGS = new String[0];
+
+    private final boolean isReadOnly;
+
+    private String[] names;
+    private String[] values;
+    private int size;
+
+    private Map<String, Integer> indexByName; // built lazily for the elements with many attributes
+
+    public AttributeMap() {
+        this(DEFAULT_SIZE, false);
+    }
+
+    public AttributeMap(int initialCapacity) {
+        this(initialCapacity, false);
+    }
+
+    private AttributeMap(int initialCapacity, boolean isReadOnly) {
+        this.names = initialCapacity > 0 ? new String[initialCapacity] : NO_STRINGS;
+        this.values = initialCapacity > 0 ? new String[initialCapacity] : NO_STRINGS;
+        this.isReadOnly = isReadOnly;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return indexOf(name) >= 0;
+    }
+
+    @Override
+    public String get(Object name) {
+        int index = indexOf(name);
+
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public String put(String name, String value) {
+        if (isReadOnly)
+            throw new UnsupportedOperationException(READ_ONLY);
+
+        requireNonNull(name);
+        requireNonNull(value);
+
+        int index = indexOf(name);
+        if (index >= 0) {
+            String previousValue = values[index];
+            values[index] = value;
+
+            return previousValue;
+        }
+
+        if (size == names.length) {
+            int length = names.length == 0 ? DEFAULT_SIZE : names.length << 1;
+
+            names = Arrays.copyOf(names, length);
+            values = Arrays.copyOf(values, length);
+        }
+
+        names[size] = name;
+        values[size] = value;
+
+        if (indexByName != null)
+            indexByName.put(name, size);
+
+        size++;
+
+        return null;
+    }
+
+    @Override
+    public String remove(Object name) {
+        int index = indexOf(name);
+
+        return index >= 0 ? removeAt(index) : null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        indexByName = null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(Object name) {
+        if (name == null)
+            return -1;
+
+        if (size > LINEAR_SCAN_LIMIT) {
+            if (indexByName == null) {
+                indexByName = new HashMap<String, Integer>(size << 1);
+                for (int index = 0; index < size; index++)
+                    indexByName.put(names[index], index);
+            }
+
+            Integer index = indexByName.get(name);
+
+            return index != null ? index : -1;
+        }
+
+        for (int index = 0; index < size; index++) // names are mostly canonical, hence identity is checked first
+            if (names[index] == name || names[index].equals(name))
+                return index;
+
+        return -1;
+    }
+
+    private String removeAt(int index) {
+        String value = values[index];
+
+        int movedCount = size - index - 1;
+        System.arraycopy(names, index + 1, names, index, movedCount);
+        System.arraycopy(values, index + 1, values, index, movedCount);
+
+        size--;
+        names[size] = null;
+        values[size] = null;
+        indexByName = null;
+
+        return value;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, String>> {
+        private int nextIndex;
+        private int lastIndex = -1;
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (nextIndex >= size)
+                throw new NoSuchElementException();
+
+            lastIndex = nextIndex++;
+
+            return new SimpleImmutableEntry<String, String>(names[lastIndex], values[lastIndex]);
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0)
+                throw new IllegalStateException();
+
+            removeAt(lastIndex);
+            nextIndex = lastIndex;
+            lastIndex = -1;
+        }
+    }
+}
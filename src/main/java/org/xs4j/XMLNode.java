@@ -60,6 +60,9 @@ public interface XMLNode {
 
     void appendText(@NotNull char[] text, int startPosition, int length);
 
+    /**
+     * @return a modifiable copy of the attributes
+     */
     @NotNull
     Map<String, String> getAttributes();
 
@@ -25,4 +25,39 @@ public final class XMLNodeFactory {
     public final XMLNode createNode(long id, String namespace, String prefix, String localName, Map<String, String> attributeByName) {
         return new XMLNodeImpl(id, namespace, prefix, localName, attributeByName);
     }
+
+    /**
+     * Creates a node with its qualified name already known, so it does not need to be concatenated out of
+     * <code>prefix</code> and <code>localName</code> upon {@link XMLNode#getQName()}.
+     */
+    public final XMLNode createNode(long id, String namespace, String prefix, String localName, String qName, Map<String, String> attributeByName) {
+        return new XMLNodeImpl(id, namespace, prefix, localName, qName, attributeByName);
+    }
+
+    /**
+     * Reinitializes the node so it represents another element, reusing its text buffer. Nodes not created by this
+     * factory are not recycled, a new node is created instead.
+     */
+    public final XMLNode recycleNode(XMLNode node, long id, String namespace, String prefix, String localName, String qName, Map<String, String> attributeByName) {
+        if (!(node instanceof XMLNodeImpl))
+            return createNode(id, namespace, prefix, localName, qName, attributeByName);
+
+        ((XMLNodeImpl)node).recycle(id, namespace, prefix, localName, qName, attributeByName);
+
+        return node;
+    }
+
+    /**
+     * Nodes passed to listeners of a parser with node recycling enabled are reused for subsequent elements, hence a
+     * node (or any of its ancestors) to be kept beyond the listener call has to be copied. Nodes not created by this
+     * factory are never recycled, so they are returned as they are.
+     *
+     * @return a copy of the node and of its ancestors, independent of any further parsing
+     */
+    public final XMLNode copyNode(XMLNode node) {
+        if (!(node instanceof XMLNodeImpl))
+            return node;
+
+        return ((XMLNodeImpl)node).copy();
+    }
 }
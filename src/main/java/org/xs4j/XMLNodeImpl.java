@@ -5,6 +5,7 @@ import org.xs4j.util.NotNull;
 import org.xs4j.util.Nullable;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,8 +18,9 @@ public final class XMLNodeImpl implements XMLNode {
     private static final String TOO_LARGE_TEXT_LENGTH = "Requested array size exceeds VM limit";
 
     private static final int DEFAULT_SIZE = 16;
+    private static final char[] NO_CHARACTERS = new char[0];
 
-    private final long id;
+    private long id;
 
     private long position;
     private int depth;
@@ -27,20 +29,43 @@ public final class XMLNodeImpl implements XMLNode {
     private String namespace;
     private String prefix;
     private String localName;
+    private String qName; // concatenated lazily unless provided
 
     private int lastAppendIndex = 0;
     private int lastAppendLength = 0;
-    private char[] characters = new char[DEFAULT_SIZE];
+    private char[] characters = NO_CHARACTERS; // allocated upon first append, as most of the nodes hold no text
     private int charactersSize = 0;
 
     private Map<String, String> attributeByQName;
 
     XMLNodeImpl(long id, String namespace, String prefix, String localName, Map<String, String> attributeByQName) {
+        this(id, namespace, prefix, localName, null, attributeByQName);
+    }
+
+    XMLNodeImpl(long id, String namespace, String prefix, String localName, String qName, Map<String, String> attributeByQName) {
+        this.id = id;
+        this.localName = requireNonNull(localName);
+        this.attributeByQName = attributeByQName instanceof AttributeMap ? attributeByQName : requireNonNull(attributeByQName);
+        this.namespace = namespace;
+        this.prefix = prefix;
+        this.qName = qName;
+    }
+
+    void recycle(long id, String namespace, String prefix, String localName, String qName, Map<String, String> attributeByQName) {
         this.id = id;
         this.localName = requireNonNull(localName);
-        this.attributeByQName = requireNonNull(attributeByQName);
+        this.attributeByQName = attributeByQName instanceof AttributeMap ? attributeByQName : requireNonNull(attributeByQName);
         this.namespace = namespace;
         this.prefix = prefix;
+        this.qName = qName;
+
+        position = 0L;
+        depth = 0;
+        parent = null;
+
+        lastAppendIndex = 0;
+        lastAppendLength = 0;
+        charactersSize = 0; // the buffer is kept for the text of the next element
     }
 
     @Override
@@ -96,6 +121,7 @@ public final class XMLNodeImpl implements XMLNode {
     @Override
     public void setPrefix(@Nullable String prefix) {
         this.prefix = prefix;
+        this.qName = null;
     }
 
     @Override
@@ -106,11 +132,15 @@ public final class XMLNodeImpl implements XMLNode {
     @Override
     public void setLocalName(@NotNull String name) {
         this.localName = requireNonNull(name);
+        this.qName = null;
     }
 
     @Override
     public String getQName() {
-        return prefix != null ? prefix + XMLNodeFactory.QNAME_SEPARATOR + localName : localName;
+        if (qName == null)
+            qName = prefix != null ? prefix + XMLNodeFactory.QNAME_SEPARATOR + localName : localName;
+
+        return qName;
     }
 
     public String getText() {
@@ -150,7 +180,7 @@ public final class XMLNodeImpl implements XMLNode {
             throw new java.lang.OutOfMemoryError(TOO_LARGE_TEXT_LENGTH);
 
         if (lenAfterConcat > characters.length) {
-            int extLength = ArraysUtil.safelyDoubleLengthValue(characters.length);
+            int extLength = characters.length == 0 ? DEFAULT_SIZE : ArraysUtil.safelyDoubleLengthValue(characters.length);
 
             characters = Arrays.copyOf(
                     characters,
@@ -166,6 +196,13 @@ public final class XMLNodeImpl implements XMLNode {
         return new HashMap<String, String>(attributeByQName);
     }
 
+    /**
+     * @return a read-only view of the attributes, which unlike {@link XMLNode#getAttributes()} does not copy them
+     */
+    public Map<String, String> getAttributeView() {
+        return Collections.unmodifiableMap(attributeByQName);
+    }
+
     Map<String, String> getAttributeByQName() {
         return attributeByQName;
     }
@@ -174,7 +211,7 @@ public final class XMLNodeImpl implements XMLNode {
     public void setAttributes(@NotNull Map<String, String> attributeByQName) {
         requireNonNull((Object)attributeByQName);
 
-        this.attributeByQName = new HashMap<String, String>(attributeByQName.size());
+        this.attributeByQName = new AttributeMap(attributeByQName.size());
         for(String attrName : attributeByQName.keySet())
             this.attributeByQName.put(
                     requireNonNull(attrName),
@@ -190,6 +227,9 @@ public final class XMLNodeImpl implements XMLNode {
 
     @Override
     public void setAttribute(@NotNull String qName, @NotNull String value) {
+        if (attributeByQName == AttributeMap.EMPTY)
+            attributeByQName = new AttributeMap();
+
         this.attributeByQName.put(requireNonNull(qName), requireNonNull(value));
     }
 
@@ -198,6 +238,34 @@ public final class XMLNodeImpl implements XMLNode {
         return attributeByQName.get(qName);
     }
 
+    /**
+     * @return a copy of this node and of its ancestors, independent of any further parsing
+     * @see XMLNodeFactory#copyNode(XMLNode)
+     */
+    public XMLNode copy() {
+        XMLNodeImpl copy = new XMLNodeImpl(
+                id,
+                namespace,
+                prefix,
+                localName,
+                qName,
+                attributeByQName == AttributeMap.EMPTY ? AttributeMap.EMPTY : new AttributeMap(attributeByQName.size()));
+
+        if (attributeByQName != AttributeMap.EMPTY)
+            copy.attributeByQName.putAll(attributeByQName);
+
+        copy.position = position;
+        copy.depth = depth;
+        copy.parent = parent instanceof XMLNodeImpl ? ((XMLNodeImpl)parent).copy() : parent;
+
+        copy.lastAppendIndex = lastAppendIndex;
+        copy.lastAppendLength = lastAppendLength;
+        copy.characters = charactersSize > 0 ? Arrays.copyOf(characters, charactersSize) : NO_CHARACTERS;
+        copy.charactersSize = charactersSize;
+
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
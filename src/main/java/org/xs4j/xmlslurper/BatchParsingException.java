@@ -0,0 +1,27 @@
+package org.xs4j.xmlslurper;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown by {@link XMLBatchSlurper} once all of the documents have been processed, if any of them failed to be parsed.
+ * The exception of the first failed document is the cause.
+ */
+public class BatchParsingException extends Exception {
+    private static final String FAILED_DOCUMENTS = "%d of %d documents failed to be parsed";
+
+    private final Map<InputSupplier, Exception> exceptionByInput;
+
+    BatchParsingException(Map<InputSupplier, Exception> exceptionByInput, int inputCount) {
+        super(String.format(FAILED_DOCUMENTS, exceptionByInput.size(), inputCount), exceptionByInput.values().iterator().next());
+
+        this.exceptionByInput = Collections.unmodifiableMap(exceptionByInput);
+    }
+
+    /**
+     * @return exceptions thrown while parsing the failed documents, in the order the documents were given
+     */
+    public Map<InputSupplier, Exception> getExceptionByInput() {
+        return exceptionByInput;
+    }
+}
@@ -0,0 +1,204 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.XMLNode;
+import org.xs4j.XMLNodeFactory;
+import org.xs4j.util.NotNull;
+
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * {@link NodePublisher} parsing on a thread of its own, which puts the nodes found into a bounded buffer and pauses once
+ * the buffer is full, until the subscriber requests more nodes. The nodes are passed to the subscriber by the parsing
+ * thread or the thread requesting the nodes, whichever comes first, while the signals are serialized. Nodes reused by
+ * the parser (see {@link XMLSlurperFactory#enableNodeRecycling}) are copied before being buffered.
+ */
+final class BufferedNodePublisher implements NodePublisher {
+    private static final String THREAD_NAME = "xmlslurper-publisher";
+    private static final String ALREADY_SUBSCRIBED = "Publisher allows a single subscriber only";
+    private static final String NON_POSITIVE_REQUEST = "Number of nodes requested must be positive, but was %d";
+
+    private final XMLSlurper xmlSlurper;
+    private final Slurp slurp;
+    private final InputStream inputStream;
+    private final int bufferSize;
+    private final boolean isNodeRecyclingEnabled;
+    private final XMLNodeFactory xmlNodeFactory = XMLNodeFactory.getInstance();
+    private final AtomicBoolean isSubscribed = new AtomicBoolean();
+
+    /**
+     * @param isNodeRecyclingEnabled true if the nodes passed to the listeners are reused by the parser afterwards
+     */
+    BufferedNodePublisher(XMLSlurper xmlSlurper, Slurp slurp, InputStream inputStream, int bufferSize, boolean isNodeRecyclingEnabled) {
+        this.xmlSlurper = xmlSlurper;
+        this.slurp = slurp;
+        this.inputStream = inputStream;
+        this.bufferSize = bufferSize;
+        this.isNodeRecyclingEnabled = isNodeRecyclingEnabled;
+    }
+
+    @Override
+    public void subscribe(@NotNull NodeSubscriber subscriber) {
+        requireNonNull(subscriber);
+
+        if (!isSubscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new NodeSubscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException(ALREADY_SUBSCRIBED));
+
+            return;
+        }
+
+        BufferedSubscription subscription = new BufferedSubscription(subscriber);
+        slurp.findAll(null, subscription);
+
+        subscriber.onSubscribe(subscription);
+        subscription.startParsing();
+    }
+
+    private class BufferedSubscription implements NodeSubscription, NodeListener {
+        private final NodeSubscriber subscriber;
+        private final BlockingQueue<XMLNode> nodes = new ArrayBlockingQueue<XMLNode>(bufferSize);
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger missedDrainCount = new AtomicInteger();
+
+        private volatile boolean isCancelled;
+        private volatile boolean isParsingOver;
+        private volatile Throwable parsingFailure;
+        private volatile Throwable requestFailure;
+
+        private boolean isTerminated; // guarded by draining being serialized
+
+        private BufferedSubscription(NodeSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0L)
+                requestFailure = new IllegalArgumentException(String.format(NON_POSITIVE_REQUEST, n));
+            else {
+                long current;
+                long next;
+                do {
+                    current = demand.get();
+                    next = current + n < 0L ? Long.MAX_VALUE : current + n;
+                } while (!demand.compareAndSet(current, next));
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            isCancelled = true;
+            nodes.clear(); // let the parsing thread blocked on a full buffer see the cancellation
+
+            drain();
+        }
+
+        @Override
+        public void onNode(@NotNull XMLNode node) {
+            try {
+                if (!isCancelled)
+                    nodes.put(isNodeRecyclingEnabled ? xmlNodeFactory.copyNode(node) : node);
+            } catch (InterruptedException e) {
+                isCancelled = true;
+            }
+
+            if (isCancelled)
+                throw new PublishingTerminationException();
+
+            drain();
+        }
+
+        private void startParsing() {
+            Thread parsingThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        xmlSlurper.parse(inputStream);
+                    } catch (PublishingTerminationException e) {
+                        // cancelled before the end of the document
+                    } catch (Throwable t) {
+                        parsingFailure = t;
+                    }
+
+                    isParsingOver = true;
+                    drain();
+                }
+            }, THREAD_NAME);
+            parsingThread.setDaemon(true);
+            parsingThread.start();
+        }
+
+        private void drain() {
+            if (missedDrainCount.getAndIncrement() != 0)
+                return; // the thread draining already will drain once more
+
+            int missed = 1;
+            do {
+                drainAvailable();
+
+                missed = missedDrainCount.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainAvailable() {
+            while (!isTerminated) {
+                if (requestFailure != null) {
+                    terminate();
+                    subscriber.onError(requestFailure);
+
+                    return;
+                }
+
+                if (isCancelled) {
+                    terminate();
+
+                    return;
+                }
+
+                boolean isOver = isParsingOver; // read before the buffer, so no node is left behind
+                if (isOver && nodes.isEmpty()) {
+                    terminate();
+
+                    if (parsingFailure != null)
+                        subscriber.onError(parsingFailure);
+                    else
+                        subscriber.onComplete();
+
+                    return;
+                }
+
+                if (demand.get() == 0L || nodes.isEmpty())
+                    return;
+
+                demand.decrementAndGet();
+                subscriber.onNext(nodes.poll());
+            }
+        }
+
+        private void terminate() {
+            isTerminated = true;
+            isCancelled = true;
+            nodes.clear();
+        }
+    }
+
+    private static class PublishingTerminationException extends RuntimeException {
+    }
+}
@@ -0,0 +1,58 @@
+package org.xs4j.xmlslurper;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the remaining bytes of a {@link ByteBuffer} (either heap or direct one) straight into the parser's buffer. A
+ * duplicate of the buffer is read, hence its position is left untouched and the buffer can be returned to a pool once
+ * parsed. Unlike {@link java.io.ByteArrayInputStream}, reading is not synchronized.
+ */
+final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer byteBuffer;
+
+    ByteBufferInputStream(ByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+        if (!byteBuffer.hasRemaining())
+            return -1;
+
+        return byteBuffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+
+        if (len == 0)
+            return 0;
+
+        if (!byteBuffer.hasRemaining())
+            return -1;
+
+        int length = Math.min(len, byteBuffer.remaining());
+        byteBuffer.get(b, off, length);
+
+        return length;
+    }
+
+    @Override
+    public long skip(long n) {
+        if (n <= 0L)
+            return 0L;
+
+        int skipped = (int)Math.min(n, byteBuffer.remaining());
+        byteBuffer.position(byteBuffer.position() + skipped);
+
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return byteBuffer.remaining();
+    }
+}
@@ -0,0 +1,79 @@
+package org.xs4j.xmlslurper;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Reads the characters of a {@link CharSequence} straight into the parser's buffer, with no need to convert it into a
+ * {@link String} first. Characters are copied in bulk from strings, string builders and array backed char buffers.
+ * Unlike {@link java.io.StringReader}, reading is not synchronized.
+ */
+final class CharSequenceReader extends Reader {
+    private final CharSequence chars;
+    private final int length;
+
+    private int position;
+
+    CharSequenceReader(CharSequence chars) {
+        this.chars = chars;
+        this.length = chars.length();
+    }
+
+    @Override
+    public int read() {
+        if (position == length)
+            return -1;
+
+        return chars.charAt(position++);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (off < 0 || len < 0 || len > cbuf.length - off)
+            throw new IndexOutOfBoundsException();
+
+        if (len == 0)
+            return 0;
+
+        if (position == length)
+            return -1;
+
+        int end = position + Math.min(len, length - position);
+
+        if (chars instanceof String)
+            ((String)chars).getChars(position, end, cbuf, off);
+        else if (chars instanceof StringBuilder)
+            ((StringBuilder)chars).getChars(position, end, cbuf, off);
+        else if (chars instanceof CharBuffer && ((CharBuffer)chars).hasArray()) {
+            CharBuffer charBuffer = (CharBuffer)chars;
+            System.arraycopy(charBuffer.array(), charBuffer.arrayOffset() + charBuffer.position() + position, cbuf, off, end - position);
+        } else
+            for (int index = position; index < end; index++)
+                cbuf[off + index - position] = chars.charAt(index);
+
+        int count = end - position;
+        position = end;
+
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        if (n <= 0L)
+            return 0L;
+
+        int skipped = (int)Math.min(n, length - position);
+        position += skipped;
+
+        return skipped;
+    }
+
+    @Override
+    public boolean ready() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,56 @@
+package org.xs4j.xmlslurper;
+
+import java.io.Serializable;
+
+/**
+ * Position within a document parsed by {@link ParallelSlurper} up to which all the nodes have been passed to the
+ * listeners, taken right after a child of the root. Besides the byte offset of the position, the checkpoint holds the
+ * prolog and the root start-tag of the document, so the parsing resumed from there is given the context of the root, and
+ * the numbers of the elements preceding the position, so the nodes keep their ids and positions.
+ * Checkpoints are serializable, so they can be persisted and used to resume the parsing by another process.
+ */
+public final class Checkpoint implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+    private final byte[] header;
+    private final int chunkIndex;
+    private final long elementCount;
+    private final long rootChildCount;
+
+    Checkpoint(long offset, byte[] header, int chunkIndex, long elementCount, long rootChildCount) {
+        this.offset = offset;
+        this.header = header;
+        this.chunkIndex = chunkIndex;
+        this.elementCount = elementCount;
+        this.rootChildCount = rootChildCount;
+    }
+
+    /**
+     * @return offset of the position within the (decompressed) content of the document, in bytes
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    byte[] getHeader() {
+        return header;
+    }
+
+    int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    long getElementCount() {
+        return elementCount;
+    }
+
+    long getRootChildCount() {
+        return rootChildCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint{offset=" + offset + ", chunkIndex=" + chunkIndex + '}';
+    }
+}
@@ -0,0 +1,17 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.NotNull;
+
+/**
+ * Defines an API that allows tracking the progress of parsing by {@link ParallelSlurper}, so it can be resumed after
+ * a failure.
+ */
+public interface CheckpointListener {
+    /**
+     * Implement the following to acquire the positions to resume the parsing from. Called once every chunk of the
+     * document has been passed to the listeners, together with all the chunks preceding it.
+     *
+     * @param checkpoint following the chunk most recently completed
+     */
+    void onCheckpoint(@NotNull Checkpoint checkpoint);
+}
@@ -0,0 +1,198 @@
+package org.xs4j.xmlslurper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads a decompressing stream (e.g. {@link java.util.zip.GZIPInputStream}) on a thread of its own, which inflates the
+ * content ahead into a bounded pool of blocks handed over to the reading thread, so the decompression and the parsing
+ * overlap on two cores. The decompressing thread pauses once all the blocks are filled and not yet read. Failures of
+ * the decompression are rethrown to the reading thread once the blocks preceding them are read, and on every read
+ * following, so truncated content is never taken as complete. Closing this stream
+ * stops the decompressing thread, which closes the underlying stream.
+ */
+final class DecompressingInputStream extends InputStream {
+    static final int BLOCK_SIZE = 64 * 1024;
+    static final int BLOCK_COUNT = 16;
+
+    private static final String THREAD_NAME = "xmlslurper-decompressor";
+    private static final String STREAM_CLOSED = "Stream closed";
+    private static final Block END = new Block(0);
+
+    private final BlockingQueue<Block> emptyBlocks;
+    private final BlockingQueue<Block> filledBlocks;
+    private final Thread decompressingThread;
+
+    private volatile Throwable failure;
+    private volatile boolean isClosed;
+
+    private Block block;
+    private int blockPosition;
+
+    DecompressingInputStream(InputStream decompressingStream) {
+        this(decompressingStream, BLOCK_SIZE, BLOCK_COUNT);
+    }
+
+    DecompressingInputStream(final InputStream decompressingStream, int blockSize, int blockCount) {
+        this.emptyBlocks = new ArrayBlockingQueue<Block>(blockCount);
+        this.filledBlocks = new ArrayBlockingQueue<Block>(blockCount + 1); // including the end marker
+        for (int index = 0; index < blockCount; index++)
+            emptyBlocks.add(new Block(blockSize));
+
+        decompressingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Block block = null;
+                try {
+                    while (!isClosed) {
+                        block = emptyBlocks.take();
+                        if (block.fill(decompressingStream) == 0)
+                            break;
+
+                        filledBlocks.put(block);
+                        block = null;
+                    }
+                } catch (InterruptedException e) {
+                    // closed
+                } catch (Throwable e) {
+                    failure = e;
+
+                    if (block != null && block.length > 0) // content preceding the failure
+                        filledBlocks.offer(block);
+                } finally {
+                    filledBlocks.offer(END);
+
+                    try {
+                        decompressingStream.close();
+                    } catch (IOException e) {
+                        // do not rethrow
+                    }
+                }
+            }
+        }, THREAD_NAME);
+        decompressingThread.setDaemon(true);
+        decompressingThread.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!hasRemaining())
+            return -1;
+
+        return block.data[blockPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+
+        if (len == 0)
+            return 0;
+
+        if (!hasRemaining())
+            return -1;
+
+        int length = Math.min(len, block.length - blockPosition);
+        System.arraycopy(block.data, blockPosition, b, off, length);
+        blockPosition += length;
+
+        return length;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (isClosed)
+            throw new IOException(STREAM_CLOSED);
+
+        return block != null && block != END ? block.length - blockPosition : 0;
+    }
+
+    @Override
+    public void close() {
+        if (isClosed)
+            return;
+
+        isClosed = true;
+        decompressingThread.interrupt();
+    }
+
+    /**
+     * @return false if the end of the decompressed content has been reached
+     */
+    private boolean hasRemaining() throws IOException {
+        if (isClosed)
+            throw new IOException(STREAM_CLOSED);
+
+        if (block == END) {
+            rethrowFailure();
+
+            return false;
+        }
+
+        if (block != null && blockPosition < block.length)
+            return true;
+
+        if (block != null)
+            emptyBlocks.offer(block);
+
+        try {
+            block = filledBlocks.take();
+            blockPosition = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException();
+        }
+
+        if (block != END)
+            return true;
+
+        rethrowFailure();
+
+        return false;
+    }
+
+    /**
+     * Checked failures other than {@link IOException} are wrapped into one.
+     */
+    private void rethrowFailure() throws IOException {
+        Throwable failure = this.failure;
+        if (failure == null)
+            return;
+
+        if (failure instanceof IOException)
+            throw (IOException)failure;
+        else if (failure instanceof RuntimeException)
+            throw (RuntimeException)failure;
+        else if (failure instanceof Error)
+            throw (Error)failure;
+
+        throw new IOException(failure);
+    }
+
+    private static class Block {
+        private final byte[] data;
+        private int length;
+
+        private Block(int size) {
+            this.data = new byte[size];
+        }
+
+        /**
+         * @return the count of bytes read into the block, 0 if the end of the stream has been reached
+         */
+        private int fill(InputStream inputStream) throws IOException {
+            length = 0;
+
+            int count;
+            while (length < data.length && (count = inputStream.read(data, length, data.length - length)) != -1)
+                length += count;
+
+            return length;
+        }
+    }
+}
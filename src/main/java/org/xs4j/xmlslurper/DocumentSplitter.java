@@ -0,0 +1,422 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.ArraysUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a document into chunks of consecutive children of the root element, each one wrapped into a well-formed
+ * document of its own: the prolog and the root start-tag of the original document, the children, and the root end-tag.
+ * The bytes are scanned without being decoded, hence the document must be encoded with an ASCII compatible encoding
+ * (e.g. UTF-8 or ISO-8859-1). Comments, processing instructions, CDATA sections and attribute values are skipped over,
+ * so markup within them does not affect the split. A chunk is closed at the first child of the root starting once the
+ * chunk has reached the given size, therefore children are never split.
+ * <p>
+ * The offset of the content following every chunk is tracked, so splitting can be resumed from there with the header of
+ * the original document. So are the numbers of the elements and of the root's children preceding every chunk, hence the
+ * nodes of a chunk can be numbered as if the document was parsed as a whole.
+ */
+final class DocumentSplitter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] PROCESSING_INSTRUCTION_END = {'?', '>'};
+    private static final byte[] COMMENT_END = {'-', '-', '>'};
+    private static final byte[] CDATA_END = {']', ']', '>'};
+
+    private final InputStream inputStream;
+    private final int chunkSize;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int bufferPosition;
+    private int bufferLength;
+
+    private byte[] chunk = new byte[BUFFER_SIZE];
+    private int chunkLength;
+
+    private byte[] header; // prolog and root start-tag
+    private byte[] footer; // root end-tag
+    private int depth;
+    private boolean isEndReached;
+    private long contentOffset; // offset of the first byte of the chunk within the document
+    private long chunkOffset;
+    private int chunkContentLength;
+
+    private long elementCount; // elements started within the content read so far, excluding the root
+    private long rootChildCount;
+    private long contentElementCount; // elements preceding the first byte of the chunk, excluding the root
+    private long contentRootChildCount;
+    private long chunkElementCount;
+    private long chunkRootChildCount;
+
+    DocumentSplitter(InputStream inputStream, int chunkSize) {
+        this.inputStream = inputStream;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param inputStream positioned at <code>offset</code> of the document, right after a child of the root
+     * @param chunkSize the size of the chunks
+     * @param header prolog and root start-tag of the document
+     * @param offset of the content of <code>inputStream</code> within the document
+     * @param elementCount number of the elements preceding <code>offset</code>, excluding the root
+     * @param rootChildCount number of the children of the root preceding <code>offset</code>
+     */
+    DocumentSplitter(InputStream inputStream, int chunkSize, byte[] header, long offset, long elementCount, long rootChildCount) {
+        this(inputStream, chunkSize);
+
+        this.header = header;
+        this.footer = createFooter(header, lastIndexOf(header, (byte)'<') + 1, header.length);
+        this.depth = 1;
+        this.contentOffset = offset;
+        this.elementCount = elementCount;
+        this.rootChildCount = rootChildCount;
+        this.contentElementCount = elementCount;
+        this.contentRootChildCount = rootChildCount;
+    }
+
+    /**
+     * @return the next chunk wrapped into a document or null if there are no more chunks
+     * @throws IOException if reading of the stream failed
+     */
+    byte[] nextChunk() throws IOException {
+        if (isEndReached)
+            return null;
+
+        if (header == null) {
+            readHeader();
+
+            if (isEndReached) // empty root element
+                return header;
+        }
+
+        int tagStart;
+        int b;
+        while ((b = read()) != -1) {
+            if (b != '<')
+                continue;
+
+            tagStart = chunkLength - 1;
+
+            switch (read()) {
+                case '?':
+                    skipUntil(PROCESSING_INSTRUCTION_END);
+                    break;
+                case '!':
+                    skipDeclaration();
+                    break;
+                case '/':
+                    skipTag();
+
+                    if (--depth == 0) {
+                        isEndReached = true;
+
+                        return wrap(tagStart, true);
+                    }
+                    break;
+                case -1:
+                    break;
+                default:
+                    boolean isRootChild = depth == 1;
+
+                    elementCount++;
+                    if (isRootChild)
+                        rootChildCount++;
+
+                    if (!skipTag())
+                        depth++;
+
+                    if (isRootChild && tagStart >= chunkSize)
+                        return cut(tagStart);
+            }
+        }
+
+        isEndReached = true;
+
+        return wrap(chunkLength, false); // not well-formed, left for the parser to report
+    }
+
+    /**
+     * @return true if the chunk most recently returned is the last one
+     */
+    boolean isEndReached() {
+        return isEndReached;
+    }
+
+    /**
+     * @return prolog and root start-tag of the document, available once the first chunk is returned
+     */
+    byte[] getHeader() {
+        return header;
+    }
+
+    /**
+     * @return root end-tag of the document, available once the first chunk is returned
+     */
+    byte[] getFooter() {
+        return footer;
+    }
+
+    /**
+     * @return offset within the document of the content of the chunk most recently returned
+     */
+    long getChunkOffset() {
+        return chunkOffset;
+    }
+
+    /**
+     * @return length of the content of the chunk most recently returned, excluding the header and the footer
+     */
+    int getChunkContentLength() {
+        return chunkContentLength;
+    }
+
+    /**
+     * @return offset within the document of the content following the chunk most recently returned
+     */
+    long getNextChunkOffset() {
+        return contentOffset;
+    }
+
+    /**
+     * @return number of the elements preceding the chunk most recently returned, excluding the root
+     */
+    long getChunkElementCount() {
+        return chunkElementCount;
+    }
+
+    /**
+     * @return number of the children of the root preceding the chunk most recently returned
+     */
+    long getChunkRootChildCount() {
+        return chunkRootChildCount;
+    }
+
+    /**
+     * @return number of the elements preceding the content following the chunk most recently returned, excluding the
+     * root
+     */
+    long getNextChunkElementCount() {
+        return contentElementCount;
+    }
+
+    /**
+     * @return number of the children of the root preceding the content following the chunk most recently returned
+     */
+    long getNextChunkRootChildCount() {
+        return contentRootChildCount;
+    }
+
+    private void readHeader() throws IOException {
+        int b;
+        int nameStart;
+        while ((b = read()) != -1) {
+            if (b != '<')
+                continue;
+
+            switch (read()) {
+                case '?':
+                    skipUntil(PROCESSING_INSTRUCTION_END);
+                    break;
+                case '!':
+                    skipDeclaration();
+                    break;
+                case -1:
+                    break;
+                default:
+                    nameStart = chunkLength - 1;
+                    boolean isEmpty = skipTag();
+
+                    header = Arrays.copyOf(chunk, chunkLength);
+                    footer = createFooter(chunk, nameStart, chunkLength);
+                    contentOffset = chunkLength;
+                    chunkLength = 0;
+
+                    if (isEmpty)
+                        isEndReached = true;
+                    else
+                        depth = 1;
+
+                    return;
+            }
+        }
+
+        header = Arrays.copyOf(chunk, chunkLength); // no root element, left for the parser to report
+        footer = new byte[0];
+        isEndReached = true;
+    }
+
+    /**
+     * Every child of the root starting a chunk is cut right at its start-tag, hence the name of the child is read out of
+     * the chunk with no parsing.
+     *
+     * @param document chunk wrapped into a document
+     * @param contentStart index of the content of the chunk within the <code>document</code>
+     * @param contentLength length of the content of the chunk
+     * @param qName encoded qualified name of an element
+     * @return true if the content of the chunk starts with a start-tag of the given name
+     */
+    static boolean isStartingWithStartTag(byte[] document, int contentStart, int contentLength, byte[] qName) {
+        if (contentLength < qName.length + 2 || document[contentStart] != '<')
+            return false;
+
+        for (int index = 0; index < qName.length; index++)
+            if (document[contentStart + 1 + index] != qName[index])
+                return false;
+
+        return isNameEnd(document[contentStart + 1 + qName.length]);
+    }
+
+    private static byte[] createFooter(byte[] bytes, int nameStart, int length) {
+        int nameEnd = nameStart;
+        while (nameEnd < length && !isNameEnd(bytes[nameEnd]))
+            nameEnd++;
+
+        byte[] rootEndTag = new byte[nameEnd - nameStart + 3];
+        rootEndTag[0] = '<';
+        rootEndTag[1] = '/';
+        System.arraycopy(bytes, nameStart, rootEndTag, 2, nameEnd - nameStart);
+        rootEndTag[rootEndTag.length - 1] = '>';
+
+        return rootEndTag;
+    }
+
+    /**
+     * '&lt;' is not allowed within attribute values, hence the last one of the header starts the root start-tag.
+     */
+    private static int lastIndexOf(byte[] bytes, byte b) {
+        int index = bytes.length - 1;
+        while (index >= 0 && bytes[index] != b)
+            index--;
+
+        return index;
+    }
+
+    private static boolean isNameEnd(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '/' || b == '>';
+    }
+
+    /**
+     * Skips the rest of a start-tag or an end-tag, including its attribute values.
+     *
+     * @return true if the tag is an empty element tag
+     */
+    private boolean skipTag() throws IOException {
+        int quote = 0;
+        int previous = 0;
+        int b;
+        while ((b = read()) != -1) {
+            if (quote != 0) {
+                if (b == quote)
+                    quote = 0;
+            } else if (b == '"' || b == '\'')
+                quote = b;
+            else if (b == '>')
+                return previous == '/';
+
+            previous = b;
+        }
+
+        return false;
+    }
+
+    /**
+     * Skips the rest of a comment, a CDATA section or a declaration (e.g. DOCTYPE with its internal subset).
+     */
+    private void skipDeclaration() throws IOException {
+        int b = read();
+        if (b == '-') {
+            skipUntil(COMMENT_END);
+
+            return;
+        } else if (b == '[') {
+            skipUntil(CDATA_END);
+
+            return;
+        }
+
+        int quote = 0;
+        int bracketDepth = 0;
+        while (b != -1) {
+            if (quote != 0) {
+                if (b == quote)
+                    quote = 0;
+            } else if (b == '"' || b == '\'')
+                quote = b;
+            else if (b == '[')
+                bracketDepth++;
+            else if (b == ']')
+                bracketDepth--;
+            else if (b == '>' && bracketDepth <= 0)
+                return;
+
+            b = read();
+        }
+    }
+
+    private void skipUntil(byte[] end) throws IOException {
+        while (read() != -1)
+            if (isChunkEndingWith(end))
+                return;
+    }
+
+    private boolean isChunkEndingWith(byte[] end) {
+        if (chunkLength < end.length)
+            return false;
+
+        for (int index = 0; index < end.length; index++)
+            if (chunk[chunkLength - end.length + index] != end[index])
+                return false;
+
+        return true;
+    }
+
+    private byte[] cut(int tagStart) {
+        byte[] document = wrap(tagStart, true);
+
+        chunkLength -= tagStart;
+        contentOffset += tagStart;
+        contentElementCount = elementCount - 1; // the child at tagStart starts the next chunk
+        contentRootChildCount = rootChildCount - 1;
+        System.arraycopy(chunk, tagStart, chunk, 0, chunkLength);
+
+        return document;
+    }
+
+    private byte[] wrap(int contentLength, boolean isClosed) {
+        chunkOffset = contentOffset;
+        chunkContentLength = contentLength;
+        chunkElementCount = contentElementCount;
+        chunkRootChildCount = contentRootChildCount;
+
+        byte[] document = new byte[header.length + contentLength + (isClosed ? footer.length : 0)];
+        System.arraycopy(header, 0, document, 0, header.length);
+        System.arraycopy(chunk, 0, document, header.length, contentLength);
+        if (isClosed)
+            System.arraycopy(footer, 0, document, header.length + contentLength, footer.length);
+
+        return document;
+    }
+
+    private int read() throws IOException {
+        if (bufferPosition == bufferLength) {
+            bufferLength = inputStream.read(buffer, 0, BUFFER_SIZE);
+            bufferPosition = 0;
+
+            if (bufferLength <= 0) {
+                bufferLength = 0;
+
+                return -1;
+            }
+        }
+
+        byte b = buffer[bufferPosition++];
+
+        if (chunkLength == chunk.length)
+            chunk = Arrays.copyOf(chunk, ArraysUtil.safelyDoubleLengthValue(chunk.length));
+        chunk[chunkLength++] = b;
+
+        return b & 0xFF;
+    }
+}
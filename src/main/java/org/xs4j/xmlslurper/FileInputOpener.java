@@ -0,0 +1,89 @@
+package org.xs4j.xmlslurper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Opens the files to be parsed, detecting gzip and zlib (deflate) compressed content by the leading bytes rather than
+ * by the file name. Compressed files are inflated by {@link DecompressingInputStream} on a thread of its own, while
+ * plain files are read through {@link MappedFileInputStream}. Neither format can be mistaken for a document, which
+ * starts with '&lt;', a whitespace or a byte order mark.
+ */
+final class FileInputOpener {
+    private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+    private FileInputOpener() {
+    }
+
+    /**
+     * @param file to be parsed
+     * @return a new stream of the decompressed content of the <code>file</code>
+     * @throws IOException if the <code>file</code> cannot be opened
+     */
+    static InputStream open(File file) throws IOException {
+        int[] leadingBytes = readLeadingBytes(file);
+
+        if (isGzip(leadingBytes))
+            return new DecompressingInputStream(new GZIPInputStream(new MappedFileInputStream(file), INFLATER_BUFFER_SIZE));
+        else if (isZlib(leadingBytes))
+            return new DecompressingInputStream(new ZlibInputStream(new MappedFileInputStream(file)));
+
+        return new MappedFileInputStream(file);
+    }
+
+    /**
+     * @param file to be parsed
+     * @return true if the content of the <code>file</code> is compressed
+     * @throws IOException if the <code>file</code> cannot be opened
+     */
+    static boolean isCompressed(File file) throws IOException {
+        int[] leadingBytes = readLeadingBytes(file);
+
+        return isGzip(leadingBytes) || isZlib(leadingBytes);
+    }
+
+    static boolean isGzip(int[] leadingBytes) {
+        return leadingBytes[0] == 0x1F && leadingBytes[1] == 0x8B;
+    }
+
+    /**
+     * @see <a href="https://tools.ietf.org/html/rfc1950">RFC 1950</a>
+     */
+    static boolean isZlib(int[] leadingBytes) {
+        return leadingBytes[0] != -1 && leadingBytes[1] != -1 &&
+                (leadingBytes[0] & 0x0F) == 8 && (leadingBytes[0] << 8 | leadingBytes[1]) % 31 == 0;
+    }
+
+    /**
+     * {@link InflaterInputStream} given an {@link Inflater} of its own, which is ended once closed rather than upon
+     * finalization, so the native memory of the inflater is released right away.
+     */
+    private static class ZlibInputStream extends InflaterInputStream {
+        private ZlibInputStream(InputStream inputStream) {
+            super(inputStream, new Inflater(), INFLATER_BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+
+    private static int[] readLeadingBytes(File file) throws IOException {
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            return new int[] {inputStream.read(), inputStream.read()};
+        } finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.xs4j.xmlslurper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Reads a file which keeps growing (e.g. a log written continuously), waiting for more content at the end of the file
+ * instead of ending the stream, so a single {@link XMLSlurper#parse} keeps passing the nodes appended to the file to
+ * the listeners. The end of the file is polled, as there is no means of watching a file in Java 6. The stream ends once
+ * {@link FollowingInputStream#stop()} is called and the content written so far has been read.
+ * <p>
+ * A file of concatenated fragments having no single root (e.g. an event per line) is wrapped into a root element of the
+ * given name, whose end-tag is read once stopped, so the parsing ends normally. The fragments must not contain the XML
+ * declaration, while the file must be encoded with UTF-8 or any ASCII compatible encoding.
+ */
+public final class FollowingInputStream extends InputStream {
+    private static final String STREAM_CLOSED = "Stream closed";
+
+    private final FileInputStream fileInputStream;
+    private final long pollIntervalMillis;
+    private final byte[] prefix;
+    private final byte[] suffix;
+
+    private int prefixPosition;
+    private int suffixPosition;
+    private volatile boolean isStopped;
+    private volatile boolean isClosed;
+
+    FollowingInputStream(File file, long pollIntervalMillis, String fragmentsRootQName) throws IOException {
+        this.fileInputStream = new FileInputStream(file);
+        this.pollIntervalMillis = pollIntervalMillis;
+
+        if (fragmentsRootQName != null) {
+            this.prefix = ('<' + fragmentsRootQName + '>').getBytes("UTF-8");
+            this.suffix = ("</" + fragmentsRootQName + '>').getBytes("UTF-8");
+        } else {
+            this.prefix = new byte[0];
+            this.suffix = new byte[0];
+        }
+    }
+
+    /**
+     * Ends the stream once the content written to the file so far has been read, instead of waiting for more. May be
+     * called from any thread, typically other than the one parsing.
+     */
+    public void stop() {
+        isStopped = true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+
+        if (len == 0)
+            return 0;
+
+        if (prefixPosition < prefix.length) {
+            int length = Math.min(len, prefix.length - prefixPosition);
+            System.arraycopy(prefix, prefixPosition, b, off, length);
+            prefixPosition += length;
+
+            return length;
+        }
+
+        while (true) {
+            if (isClosed)
+                throw new IOException(STREAM_CLOSED);
+
+            boolean isLastRead = isStopped; // content written before stopping is read in full
+
+            int count = fileInputStream.read(b, off, len);
+            if (count > 0)
+                return count;
+
+            if (isLastRead)
+                break;
+
+            try {
+                Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException();
+            }
+        }
+
+        if (suffixPosition == suffix.length)
+            return -1;
+
+        int length = Math.min(len, suffix.length - suffixPosition);
+        System.arraycopy(suffix, suffixPosition, b, off, length);
+        suffixPosition += length;
+
+        return length;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (isClosed)
+            throw new IOException(STREAM_CLOSED);
+
+        return prefix.length - prefixPosition + fileInputStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed)
+            return;
+
+        isClosed = true;
+        fileInputStream.close();
+    }
+}
@@ -0,0 +1,21 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Defines an input source for the {@link XMLBatchSlurper}. The stream is opened only once the document is about to be
+ * parsed, so any number of documents can be given without holding their streams open.
+ */
+public interface InputSupplier {
+    /**
+     * Used internally to supply {@link XMLBatchSlurper} with input, which closes the stream once parsed.
+     *
+     * @return a new stream of the document to be parsed
+     * @throws IOException if the stream cannot be opened
+     */
+    @NotNull
+    InputStream supply() throws IOException;
+}
@@ -0,0 +1,67 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * Creates the {@link InputSupplier} instances of the commonly used input sources.
+ */
+public class InputSupplierFactory {
+    public static InputSupplierFactory getInstance() {
+        return new InputSupplierFactory();
+    }
+
+    private InputSupplierFactory() {
+    }
+
+    /**
+     * @param file to be parsed
+     * @return a new instance of <code>InputSupplier</code> opening the <code>file</code> through memory mapped windows of
+     * its content, inflating it if compressed
+     */
+    public InputSupplier createInputSupplier(@NotNull File file) {
+        requireNonNull(file);
+
+        return new FileInputSupplier(file);
+    }
+
+    /**
+     * @param files to be parsed
+     * @return a new list of <code>InputSupplier</code> instances opening the <code>files</code> in the given order
+     */
+    public List<InputSupplier> createInputSuppliers(@NotNull Collection<File> files) {
+        requireNonNull(files);
+
+        List<InputSupplier> inputSuppliers = new ArrayList<InputSupplier>(files.size());
+        for (File file : files)
+            inputSuppliers.add(createInputSupplier(file));
+
+        return inputSuppliers;
+    }
+
+    static class FileInputSupplier implements InputSupplier {
+        private final File file;
+
+        FileInputSupplier(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public InputStream supply() throws IOException {
+            return FileInputOpener.open(file);
+        }
+
+        @Override
+        public String toString() {
+            return file.getPath();
+        }
+    }
+}
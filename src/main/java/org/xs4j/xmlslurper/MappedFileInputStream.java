@@ -0,0 +1,123 @@
+package org.xs4j.xmlslurper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a file through consecutive read-only memory mapped windows of its content, so the bytes are copied straight from
+ * the page cache into the parser's buffer and the read-ahead is left to the operating system. A single mapping cannot
+ * exceed 2 GB, hence larger files are read window by window, each one mapped once the previous one is exhausted. The
+ * windows are released along with the garbage collection of their buffers, as there is no means of unmapping them
+ * explicitly.
+ */
+final class MappedFileInputStream extends InputStream {
+    static final long WINDOW_SIZE = 64L * 1024L * 1024L;
+
+    private static final String STREAM_CLOSED = "Stream closed";
+
+    private final FileInputStream fileInputStream;
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+
+    private MappedByteBuffer window;
+    private long windowEnd;
+    private boolean isClosed;
+
+    MappedFileInputStream(File file) throws IOException {
+        this(file, WINDOW_SIZE);
+    }
+
+    MappedFileInputStream(File file, long windowSize) throws IOException {
+        this.fileInputStream = new FileInputStream(file);
+        this.channel = fileInputStream.getChannel();
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!hasRemaining())
+            return -1;
+
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+
+        if (len == 0)
+            return 0;
+
+        if (!hasRemaining())
+            return -1;
+
+        int length = Math.min(len, window.remaining());
+        window.get(b, off, length);
+
+        return length;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0L || !hasRemaining())
+            return 0L;
+
+        long skipped = Math.min(n, size - windowEnd + window.remaining());
+        long windowSkipped = Math.min(skipped, window.remaining());
+        window.position(window.position() + (int)windowSkipped);
+
+        if (skipped > windowSkipped) { // beyond the current window, the next one starts at the new position
+            windowEnd += skipped - windowSkipped;
+            window = null;
+        }
+
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (isClosed)
+            throw new IOException(STREAM_CLOSED);
+
+        long remaining = size - windowEnd + (window != null ? window.remaining() : 0);
+
+        return (int)Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed)
+            return;
+
+        isClosed = true;
+        window = null;
+        fileInputStream.close();
+    }
+
+    /**
+     * @return false if the end of the file has been reached
+     */
+    private boolean hasRemaining() throws IOException {
+        if (isClosed)
+            throw new IOException(STREAM_CLOSED);
+
+        if (window != null && window.hasRemaining())
+            return true;
+
+        if (windowEnd >= size)
+            return false;
+
+        long windowStart = windowEnd;
+        windowEnd = Math.min(size, windowStart + windowSize);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.XMLNode;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} over the nodes found by {@link Slurp#iterate}. Nodes are parsed as the iterator is advanced.
+ * Methods <code>hasNext</code> and <code>next</code> throw {@link XMLSlurperRuntimeException} if the parsing fails, while
+ * <code>remove</code> is not supported.
+ */
+public interface NodeIterator extends Iterator<XMLNode>, Closeable {
+    /**
+     * Ends the parsing and releases the resources (including the <code>InputStream</code> given), unless the iteration
+     * is over already.
+     */
+    @Override
+    void close();
+}
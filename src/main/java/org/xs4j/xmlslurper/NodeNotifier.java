@@ -1,23 +1,56 @@
 package org.xs4j.xmlslurper;
 
 import org.xs4j.XMLNode;
+import org.xs4j.util.ArraysUtil;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
-import java.util.Iterator;
+import java.util.List;
 
 /**
  * Created by mturski on 11/25/2016.
  */
 class NodeNotifier {
+    private static final int DEFAULT_SIZE = 4;
+
+    private static final Comparator<FindData> REGISTRATION_ORDER = new Comparator<FindData>() {
+        @Override
+        public int compare(FindData data, FindData otherData) {
+            return data.sequence < otherData.sequence ? -1 : (data.sequence == otherData.sequence ? 0 : 1);
+        }
+    };
+
     private final PositionCounter positionCounter;
-    private final Deque<FindData> findData = new ArrayDeque<FindData>();
+    private final SlurpAlignmentAutomaton slurpAlignmentAutomaton;
+    private final List<List<FindData>> findDataByPathId = new ArrayList<List<FindData>>();
+    private final List<FindData> alignedFindData = new ArrayList<FindData>();
+    private final List<List<FindData>> endNodeFindDataByDepth = new ArrayList<List<FindData>>(); // aligned and awaiting end-tag
+    private final List<XMLNode> recyclableNodeByDepth = new ArrayList<XMLNode>();
     private final Deque<XMLNode> descendants = new ArrayDeque<XMLNode>();
+    private final BitSet alignedDepths = new BitSet();
+    private final boolean isTextRetentionLimitedToAlignedNodes;
+    private final boolean isAttributeRetentionLimitedToAlignedNodes;
+    private final boolean isNodeRecyclingEnabled;
 
+    private long findDataCounter;
     private long findOneDataCounter;
+    private long findDataSequence;
 
-    NodeNotifier(PositionCounter positionCounter) {
+    NodeNotifier(PositionCounter positionCounter,
+                 SlurpAlignmentAutomaton slurpAlignmentAutomaton,
+                 boolean isTextRetentionLimitedToAlignedNodes,
+                 boolean isAttributeRetentionLimitedToAlignedNodes,
+                 boolean isNodeRecyclingEnabled) {
         this.positionCounter = positionCounter;
+        this.slurpAlignmentAutomaton = slurpAlignmentAutomaton;
+        this.isTextRetentionLimitedToAlignedNodes = isTextRetentionLimitedToAlignedNodes;
+        this.isAttributeRetentionLimitedToAlignedNodes = isAttributeRetentionLimitedToAlignedNodes;
+        this.isNodeRecyclingEnabled = isNodeRecyclingEnabled;
     }
 
     void onStartNode(XMLNode node) {
@@ -26,40 +59,117 @@ class NodeNotifier {
         node.setPosition(positionCounter.getNodePosition(descendants.size()));
         node.setDepth(descendants.size());
 
-        Iterator<FindData> findDataIt = findData.iterator();
-        while(findDataIt.hasNext()) {
-            FindData data = findDataIt.next();
+        slurpAlignmentAutomaton.onStartNode(node.getQName());
+        collectAlignedFindData(slurpAlignmentAutomaton.getAlignedPathIds());
+
+        List<FindData> endNodeFindData = getEndNodeFindData(descendants.size());
+
+        FindData data;
+        boolean isAligned = false;
+        for (int index = 0; index < alignedFindData.size(); index++) {
+            data = alignedFindData.get(index);
 
-            if (data.ifAlignedNotifyStartNodeListenerReturnTrueForRemoval(descendants, node)) { // true only for FindOneData
-                findDataIt.remove();
-                findOneDataCounter--;
+            if (data.slurpAlignment.isExhaustedBy(node)) { // aligned nodes of the path have all ended
+                unregister(data);
+                continue;
+            }
+
+            if (data.ifAlignedNotifyStartNodeListenerReturnTrueForRemoval(node)) { // true only for FindOneData
+                unregister(data);
+                isAligned = true;
+            } else if (data.isAlignedWith(node)) {
+                endNodeFindData.add(data);
+                isAligned = true;
             }
         }
+
+        alignedFindData.clear();
+
+        if (isTextRetentionLimitedToAlignedNodes)
+            alignedDepths.set(descendants.size(), isAligned);
     }
 
     void onEndNode() {
+        int depth = descendants.size();
+        List<FindData> endNodeFindData = endNodeFindDataByDepth.get(depth);
         XMLNode node = descendants.removeLast();
+        slurpAlignmentAutomaton.onEndNode();
 
-        Iterator<FindData> findDataIt = findData.iterator();
-        while(findDataIt.hasNext()) {
-            FindData data = findDataIt.next();
+        FindData data;
+        for (int index = 0; index < endNodeFindData.size(); index++) {
+            data = endNodeFindData.get(index);
 
-            if (data.ifAlignedNotifyEndNodeListenerReturnTrueForRemoval(node)) { // true only for FindOneData
-                findDataIt.remove();
-                findOneDataCounter--;
-            }
+            if (data.ifAlignedNotifyEndNodeListenerReturnTrueForRemoval(node)) // true only for FindOneData
+                unregister(data);
+        }
+
+        endNodeFindData.clear();
+
+        if (isNodeRecyclingEnabled) {
+            while (recyclableNodeByDepth.size() <= depth)
+                recyclableNodeByDepth.add(null);
+
+            recyclableNodeByDepth.set(depth, node);
         }
     }
 
+    /**
+     * @return node which has already ended at the depth of the node to be started next, hence can be reused for it, or
+     * null if node recycling is disabled or there is no such node
+     */
+    XMLNode pollRecyclableNode() {
+        int depth = descendants.size() + 1;
+        if (depth >= recyclableNodeByDepth.size())
+            return null;
+
+        return recyclableNodeByDepth.set(depth, null);
+    }
+
+    /**
+     * @return false if no registered path is able to align with any descendant of the node most recently started, hence
+     * its descendants can be skipped
+     */
+    boolean isDescendantAlignmentPossible() {
+        return slurpAlignmentAutomaton.isDescendantAlignmentPossible();
+    }
+
+    /**
+     * @return true if the nodes which have ended are reused for the nodes started afterwards
+     */
+    boolean isNodeRecyclingEnabled() {
+        return isNodeRecyclingEnabled;
+    }
+
     XMLNode peekLastDescendant() {
         return descendants.peekLast();
     }
 
+    /**
+     * @return true if the text of the node most recently started is observable by listeners and should be collected
+     */
+    boolean isLastDescendantTextRetained() {
+        return !isTextRetentionLimitedToAlignedNodes || alignedDepths.get(descendants.size());
+    }
+
+    /**
+     * @param qName name of the node to be started next
+     * @return true if the attributes of the node to be started next are observable by listeners and should be parsed
+     */
+    boolean isNextDescendantAttributeRetained(String qName) {
+        return !isAttributeRetentionLimitedToAlignedNodes || slurpAlignmentAutomaton.isAlignmentPossible(qName);
+    }
+
     void reset() {
         positionCounter.reset();
+        slurpAlignmentAutomaton.reset();
         descendants.clear();
-        findData.clear();
+        recyclableNodeByDepth.clear(); // nodes of the document parsed are not to outlive the parsing
+        alignedDepths.clear();
+        findDataByPathId.clear();
+        endNodeFindDataByDepth.clear();
+        findDataCounter = 0L;
         findOneDataCounter = 0L;
+        findDataSequence = 0L;
     }
 
     boolean isFindDataEmpty() {
@@ -67,24 +177,66 @@ class NodeNotifier {
     }
 
     boolean isFindAllDataEmpty() {
-        return findData.isEmpty();
+        return findDataCounter == 0L;
     }
 
     void addFindData(FindOneData data) {
         findOneDataCounter++;
-        findData.addLast(data);
+        register(data);
     }
 
     void addFindData(FindAllData data) {
-        findData.addLast(data);
+        register(data);
+    }
+
+    private void register(FindData data) {
+        data.sequence = findDataSequence++;
+        data.pathId = slurpAlignmentAutomaton.addPath(data.slurpAlignment.getPath());
+
+        while (findDataByPathId.size() <= data.pathId)
+            findDataByPathId.add(new ArrayList<FindData>());
+
+        findDataByPathId.get(data.pathId).add(data);
+        findDataCounter++;
+    }
+
+    private void unregister(FindData data) {
+        List<FindData> pathFindData = findDataByPathId.get(data.pathId);
+        pathFindData.remove(data);
+
+        if (pathFindData.isEmpty())
+            slurpAlignmentAutomaton.removePath(data.pathId);
+
+        findDataCounter--;
+        if (data instanceof FindOneData)
+            findOneDataCounter--;
+    }
+
+    private List<FindData> getEndNodeFindData(int depth) {
+        while (endNodeFindDataByDepth.size() <= depth)
+            endNodeFindDataByDepth.add(new ArrayList<FindData>());
+
+        return endNodeFindDataByDepth.get(depth);
+    }
+
+    private void collectAlignedFindData(int[] alignedPathIds) {
+        for (int pathId : alignedPathIds)
+            alignedFindData.addAll(findDataByPathId.get(pathId));
+
+        if (alignedPathIds.length > 1) // keep the notification order in line with the registration order
+            Collections.sort(alignedFindData, REGISTRATION_ORDER);
     }
 
     static abstract class FindData {
         SlurpAlignment slurpAlignment;
         NodeListener startNodeListener;
         NodeListener endNodeListener;
+        int pathId;
+        long sequence;
 
-        Deque<Long> alignedNodeIds = new ArrayDeque<Long>();
+        // aligned nodes are strictly nested, hence the last aligned node is always the first one to end
+        long[] alignedNodeIds = new long[DEFAULT_SIZE];
+        int alignedNodeIdCount;
 
         FindData(SlurpAlignment slurpAlignment, NodeListener startNodeListener, NodeListener endNodeListener) {
             this.slurpAlignment = slurpAlignment;
@@ -92,9 +244,20 @@ class NodeNotifier {
             this.endNodeListener = endNodeListener;
         }
 
-        abstract boolean ifAlignedNotifyStartNodeListenerReturnTrueForRemoval(Deque<XMLNode> descendants, XMLNode node);
+        abstract boolean ifAlignedNotifyStartNodeListenerReturnTrueForRemoval(XMLNode node);
 
         abstract boolean ifAlignedNotifyEndNodeListenerReturnTrueForRemoval(XMLNode node);
+
+        boolean isAlignedWith(XMLNode node) {
+            return alignedNodeIdCount > 0 && alignedNodeIds[alignedNodeIdCount - 1] == node.getId();
+        }
+
+        void pushAlignedNodeId(long nodeId) {
+            if (alignedNodeIdCount == alignedNodeIds.length)
+                alignedNodeIds = Arrays.copyOf(alignedNodeIds, ArraysUtil.safelyDoubleLengthValue(alignedNodeIds.length));
+
+            alignedNodeIds[alignedNodeIdCount++] = nodeId;
+        }
     }
 
     static class FindOneData extends FindData {
@@ -102,15 +265,15 @@ class NodeNotifier {
             super(slurpAlignment, startNodeListener, endNodeListener);
         }
 
-        boolean ifAlignedNotifyStartNodeListenerReturnTrueForRemoval(Deque<XMLNode> descendants, XMLNode node) {
-            if (alignedNodeIds.isEmpty() && slurpAlignment.checkAlignment(descendants)) {
+        boolean ifAlignedNotifyStartNodeListenerReturnTrueForRemoval(XMLNode node) {
+            if (alignedNodeIdCount == 0 && slurpAlignment.checkConstraints(node)) {
                 if (startNodeListener != null) {
                     startNodeListener.onNode(node);
                     startNodeListener = null;
                 }
 
-                alignedNodeIds.addLast(node.getId());
-                
+                pushAlignedNodeId(node.getId());
+
                 return endNodeListener == null;
             }
 
@@ -119,7 +282,7 @@ class NodeNotifier {
 
         @Override
         boolean ifAlignedNotifyEndNodeListenerReturnTrueForRemoval(XMLNode node) {
-            if (alignedNodeIds.contains(node.getId())) {
+            if (isAlignedWith(node)) {
                 if (endNodeListener != null)
                     endNodeListener.onNode(node);
 
@@ -135,12 +298,12 @@ class NodeNotifier {
             super(slurpAlignment, startNodeListener, endNodeListener);
         }
 
-        boolean ifAlignedNotifyStartNodeListenerReturnTrueForRemoval(Deque<XMLNode> descendants, XMLNode node) {
-            if (slurpAlignment.checkAlignment(descendants)) {
+        boolean ifAlignedNotifyStartNodeListenerReturnTrueForRemoval(XMLNode node) {
+            if (slurpAlignment.checkConstraints(node)) {
                 if (startNodeListener != null)
                     startNodeListener.onNode(node);
 
-                alignedNodeIds.addLast(node.getId());
+                pushAlignedNodeId(node.getId());
             }
 
             return false;
@@ -148,13 +311,11 @@ class NodeNotifier {
 
         @Override
         boolean ifAlignedNotifyEndNodeListenerReturnTrueForRemoval(XMLNode node) {
-            long nodeId = node.getId();
-
-            if (alignedNodeIds.contains(nodeId)) {
+            if (isAlignedWith(node)) {
                 if (endNodeListener != null)
                     endNodeListener.onNode(node);
 
-                alignedNodeIds.remove(nodeId);
+                alignedNodeIdCount--;
             }
 
             return false;
@@ -0,0 +1,17 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.NotNull;
+
+/**
+ * Publishes the nodes found by {@link Slurp#publish} to a single {@link NodeSubscriber}, following the rules of the
+ * Reactive Streams <code>Publisher</code>. The interfaces mirror <code>java.util.concurrent.Flow</code>, so adapting
+ * them takes a single delegating class.
+ */
+public interface NodePublisher {
+    /**
+     * Starts the parsing. Any subsequent subscriber is signaled with {@link NodeSubscriber#onError} right away.
+     *
+     * @param subscriber to receive the nodes
+     */
+    void subscribe(@NotNull NodeSubscriber subscriber);
+}
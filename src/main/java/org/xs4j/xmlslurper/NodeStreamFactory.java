@@ -0,0 +1,13 @@
+package org.xs4j.xmlslurper;
+
+import java.io.InputStream;
+
+/**
+ * Creates {@link NodeIterator} and {@link NodePublisher} instances driving the parser which the search patterns are
+ * registered with.
+ */
+interface NodeStreamFactory {
+    NodeIterator createNodeIterator(Slurp slurp, InputStream inputStream);
+
+    NodePublisher createNodePublisher(Slurp slurp, InputStream inputStream, int bufferSize);
+}
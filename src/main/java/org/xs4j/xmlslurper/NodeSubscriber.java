@@ -0,0 +1,36 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+/**
+ * Receives the nodes published by {@link NodePublisher}, following the rules of the Reactive Streams
+ * <code>Subscriber</code>. The signals are never concurrent, however they may come from different threads.
+ */
+public interface NodeSubscriber {
+    /**
+     * Signaled once, before any other signal. No nodes are published until requested via <code>subscription</code>.
+     *
+     * @param subscription to request the nodes with
+     */
+    void onSubscribe(@NotNull NodeSubscription subscription);
+
+    /**
+     * Signaled with every requested node found, upon its end-tag.
+     *
+     * @param node currently parsed
+     */
+    void onNext(@NotNull XMLNode node);
+
+    /**
+     * Signaled once the parsing has failed, with no signals following.
+     *
+     * @param throwable thrown while parsing
+     */
+    void onError(@NotNull Throwable throwable);
+
+    /**
+     * Signaled once the document has ended and all of the nodes have been published, with no signals following.
+     */
+    void onComplete();
+}
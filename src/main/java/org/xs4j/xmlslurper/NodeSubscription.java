@@ -0,0 +1,20 @@
+package org.xs4j.xmlslurper;
+
+/**
+ * Links {@link NodeSubscriber} with {@link NodePublisher}, following the rules of the Reactive Streams
+ * <code>Subscription</code>.
+ */
+public interface NodeSubscription {
+    /**
+     * Adds <code>n</code> nodes to the demand. Non-positive <code>n</code> cancels the subscription, signaling
+     * {@link NodeSubscriber#onError} with {@link IllegalArgumentException}.
+     *
+     * @param n number of nodes, where {@link Long#MAX_VALUE} stands for an unbounded demand
+     */
+    void request(long n);
+
+    /**
+     * Stops publishing of the nodes and ends the parsing upon the next node found.
+     */
+    void cancel();
+}
@@ -0,0 +1,741 @@
+package org.xs4j.xmlslurper;
+
+import org.xml.sax.SAXException;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+import org.xs4j.util.Nullable;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * {@link XMLSlurper} for large record oriented documents (e.g. a root element holding millions of records). The
+ * document is split by {@link DocumentSplitter} into chunks of the root's children, which are parsed concurrently by the
+ * {@link XMLSlurper} instances created with {@link XMLSlurperFactory#createXMLSlurper}, each one having the paths
+ * defined with {@link ParallelSlurper#getNodes} registered anew. The number of chunks being parsed or awaiting delivery
+ * is bounded, so the document is never held in memory as a whole. The document is split by its bytes with no decoding,
+ * hence it must be encoded with an ASCII compatible encoding (e.g. UTF-8 or ISO-8859-1).
+ * <p>
+ * With ordered delivery the nodes found within a chunk are buffered and passed to the listeners on the thread calling
+ * {@link ParallelSlurper#parse} in document order. With unordered delivery the listeners are notified on the threads of
+ * the <code>ExecutorService</code> as soon as the nodes are found, hence the listeners must be thread safe. Once the
+ * parsing fails, the chunks still being parsed stop notifying the listeners, and {@link ParallelSlurper#parse} returns
+ * only after all of them have ended.
+ * <p>
+ * The root node is passed to the start-tag listeners from the first chunk only and to the end-tag listeners from the last
+ * chunk only, once the text of the root found within every chunk has been joined in document order, while
+ * <code>find</code> notifies about the nodes of the first chunk having any (in document order when the delivery is
+ * ordered). The ids and positions of the nodes of every chunk follow the elements of the chunks
+ * preceding it, hence they are the same as if the document was parsed by a single {@link XMLSlurper}, and so are the
+ * nodes matched with {@link SlurpNode#get}. Once no registered path is able to match any node of the chunks left (every
+ * <code>find</code> has found its node and every {@link SlurpNode#get} range of the root's children has passed), the
+ * rest of the document is not split nor read anymore, unless no path has been registered at all.
+ * <p>
+ * A {@link Checkpoint} is taken once every chunk has been completed along with all the chunks preceding it, so a
+ * failed parsing can be resumed from the last one with {@link ParallelSlurper#parse(File, Checkpoint,
+ * CheckpointListener)} rather than from the beginning of the document.
+ */
+public class ParallelSlurper implements XMLSourceSlurper {
+    private static final int MAX_PENDING_CHUNKS_PER_PROCESSOR = 4;
+    private static final String CHECKPOINT_BEYOND_END = "Checkpoint at offset %d is beyond the end of the document";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String XML_DECLARATION_START = "<?xml";
+    private static final String XML_DECLARATION_END = "?>";
+    private static final Pattern ENCODING_DECLARATION = Pattern.compile("\\s+encoding\\s*=\\s*(\"[^\"]*\"|'[^']*')");
+
+    private final XMLSlurperFactory xmlSlurperFactory;
+    private final ExecutorService executorService;
+    private final int chunkSize;
+    private final boolean isDeliveryOrdered;
+    private final int maxPendingChunkCount;
+
+    private final List<Registration> registrations = new ArrayList<Registration>();
+
+    ParallelSlurper(XMLSlurperFactory xmlSlurperFactory,
+                    ExecutorService executorService,
+                    int chunkSize,
+                    boolean isDeliveryOrdered) {
+        this.xmlSlurperFactory = xmlSlurperFactory;
+        this.executorService = executorService;
+        this.chunkSize = chunkSize;
+        this.isDeliveryOrdered = isDeliveryOrdered;
+        this.maxPendingChunkCount = MAX_PENDING_CHUNKS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public SlurpNode getNodes(@Nullable final String... nodes) {
+        if (nodes != null)
+            requireNonNull(nodes);
+
+        return new RecordedSlurpNode(new Step(null) {
+            @Override
+            Object apply(Object xmlSlurper) {
+                return ((XMLSlurper)xmlSlurper).getNodes(nodes);
+            }
+        }, getPathLength(nodes), Long.MAX_VALUE);
+    }
+
+    @Override
+    public void parse(@NotNull InputStream inputStream) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(inputStream);
+
+        doParse(inputStream, null, null, null);
+    }
+
+    /**
+     * Every chunk is validated against the <code>schemaFile</code> separately, hence the schema must accept a document
+     * holding any subset of the root's children.
+     *
+     * @param inputStream containing the content to be parsed
+     * @param schemaFile <code>Schema</code> to be used for XML document validation purposes
+     */
+    @Override
+    public void parse(@NotNull InputStream inputStream, @NotNull File schemaFile) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(inputStream);
+        requireNonNull(schemaFile);
+
+        doParse(inputStream, schemaFile, null, null);
+    }
+
+    @Override
+    public void parse(@NotNull File file) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(file);
+
+        doParse(FileInputOpener.open(file), null, null, null);
+    }
+
+    /**
+     * Every chunk is validated against the <code>schemaFile</code> separately, hence the schema must accept a document
+     * holding any subset of the root's children.
+     *
+     * @param file containing the content to be parsed
+     * @param schemaFile <code>Schema</code> to be used for XML document validation purposes
+     */
+    @Override
+    public void parse(@NotNull File file, @NotNull File schemaFile) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(file);
+        requireNonNull(schemaFile);
+
+        doParse(FileInputOpener.open(file), schemaFile, null, null);
+    }
+
+    /**
+     * Parses the document from the <code>checkpoint</code> on, if given, notifying the <code>checkpointListener</code>
+     * once every chunk has been completed. The nodes preceding the checkpoint are not passed to the listeners, nor is
+     * the root's start-tag when resumed. Nodes between the last checkpoint and a failure are going to be passed again
+     * once resumed.
+     *
+     * @param inputStream containing the content to be parsed from its beginning, which is skipped up to the
+     *                    <code>checkpoint</code>
+     * @param checkpoint to resume the parsing from, taken while parsing the same document, or null to start anew
+     * @param checkpointListener to be notified about the checkpoints
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs interacting with the <code>InputStream</code>.
+     */
+    public void parse(@NotNull InputStream inputStream, @Nullable Checkpoint checkpoint, @NotNull CheckpointListener checkpointListener) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(inputStream);
+        requireNonNull(checkpointListener);
+
+        doParse(inputStream, null, checkpoint, checkpointListener);
+    }
+
+    /**
+     * Parses the file from the <code>checkpoint</code> on, if given, notifying the <code>checkpointListener</code> once
+     * every chunk has been completed. The file is read through memory mapped windows, hence the content preceding the
+     * checkpoint is not read at all unless the file is compressed.
+     *
+     * @param file containing the content to be parsed
+     * @param checkpoint to resume the parsing from, taken while parsing the same file, or null to start anew
+     * @param checkpointListener to be notified about the checkpoints
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs reading the <code>file</code>.
+     * @see ParallelSlurper#parse(InputStream, Checkpoint, CheckpointListener)
+     */
+    public void parse(@NotNull File file, @Nullable Checkpoint checkpoint, @NotNull CheckpointListener checkpointListener) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(file);
+        requireNonNull(checkpointListener);
+
+        doParse(FileInputOpener.open(file), null, checkpoint, checkpointListener);
+    }
+
+    @Override
+    public void parse(@NotNull byte[] bytes) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(bytes);
+
+        parse(new ByteBufferInputStream(ByteBuffer.wrap(bytes)));
+    }
+
+    @Override
+    public void parse(@NotNull ByteBuffer byteBuffer) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(byteBuffer);
+
+        parse(new ByteBufferInputStream(byteBuffer));
+    }
+
+    /**
+     * Chunks are split out of an encoded document, hence the characters are encoded with UTF-8 first, while the encoding
+     * declared by the XML declaration, if any, is dropped.
+     *
+     * @param chars containing the content to be parsed
+     */
+    @Override
+    public void parse(@NotNull char[] chars) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(chars);
+
+        parse(CharBuffer.wrap(chars));
+    }
+
+    /**
+     * Chunks are split out of an encoded document, hence the characters are encoded with UTF-8 first, while the encoding
+     * declared by the XML declaration, if any, is dropped.
+     *
+     * @param chars containing the content to be parsed
+     */
+    @Override
+    public void parse(@NotNull CharSequence chars) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(chars);
+
+        int declarationEnd = getXMLDeclarationEnd(chars);
+        String declaration = ENCODING_DECLARATION.matcher(chars.subSequence(0, declarationEnd)).replaceFirst("");
+
+        parse(new SequenceInputStream(
+                new ByteBufferInputStream(UTF_8.encode(declaration)),
+                new ByteBufferInputStream(UTF_8.encode(CharBuffer.wrap(chars, declarationEnd, chars.length())))));
+    }
+
+    /**
+     * @return index following the XML declaration (preceded by the byte order mark, if any), or 0 if there is none
+     */
+    private static int getXMLDeclarationEnd(CharSequence chars) {
+        int start = chars.length() > 0 && chars.charAt(0) == '\uFEFF' ? 1 : 0;
+        int nameEnd = start + XML_DECLARATION_START.length();
+        if (chars.length() <= nameEnd
+                || !XML_DECLARATION_START.contentEquals(chars.subSequence(start, nameEnd))
+                || !Character.isWhitespace(chars.charAt(nameEnd)))
+            return 0;
+
+        for (int index = nameEnd; index < chars.length() - 1; index++)
+            if (chars.charAt(index) == '?' && chars.charAt(index + 1) == '>')
+                return index + XML_DECLARATION_END.length();
+
+        return 0; // not well-formed, left for the parser to report
+    }
+
+    private void doParse(InputStream inputStream, File schemaFile, Checkpoint checkpoint, CheckpointListener checkpointListener) throws ParserConfigurationException, SAXException, IOException {
+        Deque<Future<Chunk>> pendingChunks = new ArrayDeque<Future<Chunk>>();
+        AtomicBoolean isAborted = new AtomicBoolean();
+        StringBuilder rootText = new StringBuilder(); // found within the chunks completed so far
+        try {
+            DocumentSplitter documentSplitter;
+            int chunkIndex;
+            if (checkpoint != null) {
+                skipFully(inputStream, checkpoint.getOffset());
+
+                documentSplitter = new DocumentSplitter(inputStream, chunkSize, checkpoint.getHeader(), checkpoint.getOffset(),
+                        checkpoint.getElementCount(), checkpoint.getRootChildCount());
+                chunkIndex = checkpoint.getChunkIndex();
+            } else {
+                documentSplitter = new DocumentSplitter(inputStream, chunkSize);
+                chunkIndex = 0;
+            }
+
+            byte[] document;
+            while ((document = documentSplitter.nextChunk()) != null) {
+                if (pendingChunks.size() >= maxPendingChunkCount)
+                    complete(pendingChunks.removeFirst(), checkpointListener, rootText);
+
+                if (isEveryRegistrationExhaustedBefore(documentSplitter.getChunkRootChildCount()))
+                    break;
+
+                Chunk chunk = new Chunk(chunkIndex++, documentSplitter.isEndReached(), documentSplitter.getHeader(),
+                        documentSplitter.getChunkElementCount(), documentSplitter.getChunkRootChildCount(),
+                        documentSplitter.getNextChunkOffset(), documentSplitter.getNextChunkElementCount(),
+                        documentSplitter.getNextChunkRootChildCount());
+                pendingChunks.addLast(executorService.submit(new ChunkParsingTask(chunk, document, schemaFile, isAborted)));
+            }
+
+            while (!pendingChunks.isEmpty())
+                complete(pendingChunks.removeFirst(), checkpointListener, rootText);
+        } finally {
+            isAborted.set(true);
+            awaitAll(pendingChunks);
+
+            registrations.clear();
+            inputStream.close();
+        }
+    }
+
+    /**
+     * @param rootChildCount number of the children of the root preceding a chunk
+     * @return true if none of the registered paths is able to match any node of the chunk or of the chunks following it,
+     * while a document with no paths registered is still parsed as a whole (e.g. to be validated or to take checkpoints)
+     */
+    private boolean isEveryRegistrationExhaustedBefore(long rootChildCount) {
+        if (registrations.isEmpty())
+            return false;
+
+        for (Registration registration : registrations)
+            if (!registration.isExhaustedBefore(rootChildCount))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * @return number of the names of the path, or -1 if it contains {@link SlurpAlignmentFactory#DEPTH_MARKER}
+     */
+    private static int getPathLength(String[] nodes) {
+        if (nodes == null)
+            return 0;
+
+        for (String node : nodes)
+            if (SlurpAlignmentFactory.DEPTH_MARKER.equals(node))
+                return -1;
+
+        return nodes.length;
+    }
+
+    /**
+     * Waits for the chunks left after a failure, so none of them notifies the listeners once the parsing is over. The
+     * chunks abort as soon as they notice the failure, hence their results are of no interest.
+     */
+    private static void awaitAll(Deque<Future<Chunk>> pendingChunks) {
+        for (Future<Chunk> pendingChunk : pendingChunks) {
+            try {
+                pendingChunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                return;
+            } catch (ExecutionException e) {
+                // already failed or aborted
+            }
+        }
+    }
+
+    private static void skipFully(InputStream inputStream, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0L) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0L) {
+                if (inputStream.read() == -1)
+                    throw new EOFException(String.format(CHECKPOINT_BEYOND_END, count));
+
+                skipped = 1L;
+            }
+
+            remaining -= skipped;
+        }
+    }
+
+    private void complete(Future<Chunk> pendingChunk, CheckpointListener checkpointListener, StringBuilder rootText) throws ParserConfigurationException, SAXException, IOException {
+        Chunk chunk;
+        try {
+            chunk = pendingChunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ParserConfigurationException)
+                throw (ParserConfigurationException)cause;
+            else if (cause instanceof SAXException)
+                throw (SAXException)cause;
+            else if (cause instanceof IOException)
+                throw (IOException)cause;
+            else if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            else if (cause instanceof Error)
+                throw (Error)cause;
+
+            throw new SAXException((Exception)cause);
+        }
+
+        if (chunk.rootText != null)
+            rootText.append(chunk.rootText);
+
+        if (chunk.endedRoot != null && rootText.length() > 0) {
+            String text = chunk.endedRoot.getText();
+            chunk.endedRoot.setText(text != null ? rootText.append(text).toString() : rootText.toString());
+        }
+
+        for (Event event : chunk.events)
+            event.chunkListener.deliver(event.node);
+
+        if (checkpointListener != null && !chunk.isLast)
+            checkpointListener.onCheckpoint(new Checkpoint(chunk.nextChunkOffset, chunk.header, chunk.index + 1,
+                    chunk.nextChunkElementCount, chunk.nextChunkRootChildCount));
+    }
+
+    private class ChunkParsingTask implements Callable<Chunk> {
+        private final Chunk chunk;
+        private final byte[] document;
+        private final File schemaFile;
+        private final AtomicBoolean isAborted;
+        private final List<Registration> registrations = new ArrayList<Registration>(ParallelSlurper.this.registrations);
+
+        private ChunkParsingTask(Chunk chunk, byte[] document, File schemaFile, AtomicBoolean isAborted) {
+            this.chunk = chunk;
+            this.document = document;
+            this.schemaFile = schemaFile;
+            this.isAborted = isAborted;
+        }
+
+        @Override
+        public Chunk call() throws Exception {
+            if (isAborted.get())
+                return chunk;
+
+            // buffered nodes must not be reused before being delivered
+            XMLSlurper xmlSlurper = xmlSlurperFactory.createXMLSlurper(!isDeliveryOrdered, chunk.elementCount, chunk.rootChildCount);
+
+            for (Registration registration : registrations)
+                registration.register(xmlSlurper, chunk, isAborted);
+
+            if (schemaFile != null)
+                xmlSlurper.parse(new ByteArrayInputStream(document), schemaFile);
+            else
+                xmlSlurper.parse(new ByteArrayInputStream(document));
+
+            return chunk;
+        }
+    }
+
+    private static class Chunk {
+        private final int index;
+        private final boolean isLast;
+        private final byte[] header;
+        private final long elementCount; // preceding the chunk, excluding the root
+        private final long rootChildCount;
+        private final long nextChunkOffset;
+        private final long nextChunkElementCount;
+        private final long nextChunkRootChildCount;
+        private final List<Event> events = new ArrayList<Event>();
+        private String rootText; // found within the chunk
+        private XMLNode endedRoot; // of the last chunk, awaiting the text of the root found within the other chunks
+
+        private Chunk(int index, boolean isLast, byte[] header, long elementCount, long rootChildCount,
+                      long nextChunkOffset, long nextChunkElementCount, long nextChunkRootChildCount) {
+            this.index = index;
+            this.isLast = isLast;
+            this.header = header;
+            this.elementCount = elementCount;
+            this.rootChildCount = rootChildCount;
+            this.nextChunkOffset = nextChunkOffset;
+            this.nextChunkElementCount = nextChunkElementCount;
+            this.nextChunkRootChildCount = nextChunkRootChildCount;
+        }
+    }
+
+    private static class Event {
+        private final ChunkListener chunkListener;
+        private final XMLNode node;
+
+        private Event(ChunkListener chunkListener, XMLNode node) {
+            this.chunkListener = chunkListener;
+            this.node = node;
+        }
+    }
+
+    /**
+     * Thrown from the listeners of a chunk once the parsing has failed, so the chunk stops being parsed.
+     */
+    private static class ChunkAbortedException extends RuntimeException {
+    }
+
+    private class ChunkListener implements NodeListener {
+        private final Chunk chunk;
+        private final Registration registration;
+        private final NodeListener nodeListener;
+        private final boolean isStartNodeListener;
+        private final AtomicBoolean isAborted;
+
+        private ChunkListener(Chunk chunk, Registration registration, NodeListener nodeListener, boolean isStartNodeListener, AtomicBoolean isAborted) {
+            this.chunk = chunk;
+            this.registration = registration;
+            this.nodeListener = nodeListener;
+            this.isStartNodeListener = isStartNodeListener;
+            this.isAborted = isAborted;
+        }
+
+        @Override
+        public void onNode(@NotNull XMLNode node) {
+            if (isAborted.get())
+                throw new ChunkAbortedException();
+
+            if (node.getDepth() == 1 && isStartNodeListener && chunk.index != 0)
+                return;
+
+            if (node.getDepth() == 1 && !isStartNodeListener) {
+                if (chunk.isLast) {
+                    chunk.endedRoot = node;
+                    chunk.events.add(new Event(this, node)); // delivered once the chunks preceding it are completed
+                } else if (node.getText() != null)
+                    chunk.rootText = node.getText();
+
+                return;
+            }
+
+            if (isDeliveryOrdered)
+                chunk.events.add(new Event(this, node));
+            else
+                deliver(node);
+        }
+
+        private void deliver(XMLNode node) {
+            if (node.getDepth() == 1 || registration.isFindAll || registration.claim(chunk.index))
+                nodeListener.onNode(node);
+        }
+    }
+
+    private class Registration {
+        private final Step step;
+        private final boolean isFindAll;
+        private final NodeListener startNodeListener;
+        private final NodeListener endNodeListener;
+        private final long rootChildRangeEnd; // last position of the root's children matched by the path
+        private final AtomicInteger ownerChunkIndex = new AtomicInteger(-1); // the only chunk notifying find listeners
+
+        private Registration(RecordedSlurp recordedSlurp, boolean isFindAll, NodeListener startNodeListener, NodeListener endNodeListener) {
+            this.step = recordedSlurp.step;
+            this.isFindAll = isFindAll;
+            this.startNodeListener = startNodeListener;
+            this.endNodeListener = endNodeListener;
+            this.rootChildRangeEnd = recordedSlurp.rootChildRangeEnd;
+        }
+
+        /**
+         * The children of the root are never split among the chunks, hence once a chunk has claimed a <code>find</code>
+         * its node has been found as a whole.
+         */
+        private boolean isExhaustedBefore(long rootChildCount) {
+            return rootChildCount >= rootChildRangeEnd || (!isFindAll && ownerChunkIndex.get() != -1);
+        }
+
+        private void register(XMLSlurper xmlSlurper, Chunk chunk, AtomicBoolean isAborted) {
+            Slurp slurp = (Slurp)step.applyAll(xmlSlurper);
+
+            NodeListener chunkStartNodeListener = startNodeListener != null ? new ChunkListener(chunk, this, startNodeListener, true, isAborted) : null;
+            NodeListener chunkEndNodeListener = endNodeListener != null ? new ChunkListener(chunk, this, endNodeListener, false, isAborted) : null;
+
+            if (isFindAll)
+                slurp.findAll(chunkStartNodeListener, chunkEndNodeListener);
+            else
+                slurp.find(chunkStartNodeListener, chunkEndNodeListener);
+        }
+
+        private boolean claim(int chunkIndex) {
+            return ownerChunkIndex.compareAndSet(-1, chunkIndex) || ownerChunkIndex.get() == chunkIndex;
+        }
+    }
+
+    /**
+     * Single call made upon {@link XMLSlurper}, {@link SlurpNode} or {@link SlurpAttribute} while defining a path, which
+     * is replayed on the slurper of every chunk.
+     */
+    private static abstract class Step {
+        private final Step previous;
+
+        Step(Step previous) {
+            this.previous = previous;
+        }
+
+        abstract Object apply(Object target);
+
+        Object applyAll(XMLSlurper xmlSlurper) {
+            return apply(previous != null ? previous.applyAll(xmlSlurper) : xmlSlurper);
+        }
+    }
+
+    private class RecordedSlurp implements Slurp {
+        final Step step;
+        final long rootChildRangeEnd;
+
+        private RecordedSlurp(Step step, long rootChildRangeEnd) {
+            this.step = step;
+            this.rootChildRangeEnd = rootChildRangeEnd;
+        }
+
+        @Override
+        public void find(@Nullable NodeListener nodeListener) {
+            registrations.add(new Registration(this, false, nodeListener, nodeListener));
+        }
+
+        @Override
+        public void find(@Nullable NodeListener startNodeListener, @Nullable NodeListener endNodeListener) {
+            registrations.add(new Registration(this, false, startNodeListener, endNodeListener));
+        }
+
+        @Override
+        public void findAll(@Nullable NodeListener nodeListener) {
+            registrations.add(new Registration(this, true, nodeListener, nodeListener));
+        }
+
+        @Override
+        public void findAll(@Nullable NodeListener startNodeListener, @Nullable NodeListener endNodeListener) {
+            registrations.add(new Registration(this, true, startNodeListener, endNodeListener));
+        }
+
+        @Override
+        public NodeIterator iterate(@NotNull InputStream inputStream) {
+            requireNonNull(inputStream);
+
+            return new ThreadedNodeIterator(ParallelSlurper.this, this, inputStream);
+        }
+
+        @Override
+        public NodePublisher publish(@NotNull InputStream inputStream, int bufferSize) {
+            requireNonNull(inputStream);
+            SlurpFactory.requireBufferSizePositive(bufferSize);
+
+            return new BufferedNodePublisher(ParallelSlurper.this, this, inputStream, bufferSize,
+                    !isDeliveryOrdered && xmlSlurperFactory.isNodeRecyclingEnabled());
+        }
+    }
+
+    private class RecordedSlurpNode extends RecordedSlurp implements SlurpNode {
+        private final int pathLength;
+
+        private RecordedSlurpNode(Step step, int pathLength, long rootChildRangeEnd) {
+            super(step, rootChildRangeEnd);
+            this.pathLength = pathLength;
+        }
+
+        @Override
+        public SlurpNode node(@NotNull final String qName) {
+            requireNonNull(qName);
+
+            return new RecordedSlurpNode(new Step(step) {
+                @Override
+                Object apply(Object slurpNode) {
+                    return ((SlurpNode)slurpNode).node(qName);
+                }
+            }, pathLength == -1 || SlurpAlignmentFactory.DEPTH_MARKER.equals(qName) ? -1 : pathLength + 1, Long.MAX_VALUE);
+        }
+
+        @Override
+        public SlurpNode get(final long nodeIndex) {
+            return new RecordedSlurpNode(new Step(step) {
+                @Override
+                Object apply(Object slurpNode) {
+                    return ((SlurpNode)slurpNode).get(nodeIndex);
+                }
+            }, pathLength, pathLength == 2 ? nodeIndex : Long.MAX_VALUE);
+        }
+
+        @Override
+        public SlurpNode get(final long fromNodeIndex, final long toNodeIndex) {
+            SlurpFactory.requireNodeIndexRangeNotEmpty(fromNodeIndex, toNodeIndex);
+
+            return new RecordedSlurpNode(new Step(step) {
+                @Override
+                Object apply(Object slurpNode) {
+                    return ((SlurpNode)slurpNode).get(fromNodeIndex, toNodeIndex);
+                }
+            }, pathLength, pathLength == 2 ? toNodeIndex : Long.MAX_VALUE);
+        }
+
+        @Override
+        public SlurpAttribute attr(@NotNull final String qName) {
+            requireNonNull(qName);
+
+            return new RecordedSlurpAttribute(new Step(step) {
+                @Override
+                Object apply(Object slurpNode) {
+                    return ((SlurpNode)slurpNode).attr(qName);
+                }
+            });
+        }
+    }
+
+    private class RecordedSlurpAttribute extends RecordedSlurp implements SlurpAttribute {
+        private RecordedSlurpAttribute(Step step) {
+            super(step, Long.MAX_VALUE); // attribute constraints replace the range of the path
+        }
+
+        @Override
+        public Slurp is(@NotNull final String value) {
+            requireNonNull(value);
+
+            return new RecordedSlurpAttribute(new Step(step) {
+                @Override
+                Object apply(Object slurpAttribute) {
+                    return ((SlurpAttribute)slurpAttribute).is(value);
+                }
+            });
+        }
+
+        @Override
+        public Slurp startsWith(@NotNull final String value) {
+            requireNonNull(value);
+
+            return new RecordedSlurpAttribute(new Step(step) {
+                @Override
+                Object apply(Object slurpAttribute) {
+                    return ((SlurpAttribute)slurpAttribute).startsWith(value);
+                }
+            });
+        }
+
+        @Override
+        public Slurp regex(@NotNull final String regex) {
+            requireNonNull(regex);
+
+            return new RecordedSlurpAttribute(new Step(step) {
+                @Override
+                Object apply(Object slurpAttribute) {
+                    return ((SlurpAttribute)slurpAttribute).regex(regex);
+                }
+            });
+        }
+
+        @Override
+        public Slurp isNot(@NotNull final String value) {
+            requireNonNull(value);
+
+            return new RecordedSlurpAttribute(new Step(step) {
+                @Override
+                Object apply(Object slurpAttribute) {
+                    return ((SlurpAttribute)slurpAttribute).isNot(value);
+                }
+            });
+        }
+
+        @Override
+        public Slurp isNot(@NotNull final String... values) {
+            requireNonNull(values);
+
+            return new RecordedSlurpAttribute(new Step(step) {
+                @Override
+                Object apply(Object slurpAttribute) {
+                    return ((SlurpAttribute)slurpAttribute).isNot(values);
+                }
+            });
+        }
+    }
+}
@@ -10,17 +10,29 @@ import java.util.Arrays;
 class PositionCounter {
     private static final int DEFAULT_SIZE = 4;
 
-    private long[] posByDepth = new long[DEFAULT_SIZE];
+    private final long rootChildPositionOffset;
+
+    private long[] posByDepth;
     private int prevDepth;
 
     PositionCounter() {
+        this(0L);
+    }
+
+    /**
+     * @param rootChildPositionOffset number of the children of the root to be counted before the first one
+     */
+    PositionCounter(long rootChildPositionOffset) {
+        this.rootChildPositionOffset = rootChildPositionOffset;
+
+        reset();
     }
 
     long getNodePosition(int depth) {
         if (depth >= posByDepth.length)
             posByDepth = Arrays.copyOf(posByDepth, ArraysUtil.safelyDoubleLengthValue(posByDepth.length));
         else if (depth < prevDepth)
-            posByDepth[prevDepth - 1] = 0L;
+            Arrays.fill(posByDepth, depth, prevDepth, 0L); // reset all the levels left, not only the deepest one
 
         prevDepth = depth;
         return ++posByDepth[depth - 1];
@@ -28,6 +40,7 @@ class PositionCounter {
 
     void reset() {
         posByDepth = new long[DEFAULT_SIZE];
+        posByDepth[1] = rootChildPositionOffset;
         prevDepth = 0;
     }
 }
@@ -0,0 +1,192 @@
+package org.xs4j.xmlslurper;
+
+import org.xml.sax.SAXException;
+import org.xs4j.util.NotNull;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * Index of the records (children of the root element with the given name) of a large document, mapping the position of
+ * every record, and the values of the indexed attributes of the records, to the byte range of the record within the
+ * document. Positions are counted among all the children of the root, as {@link SlurpNode#get} counts them, hence the
+ * positions of the children of other names are left as gaps. A record is parsed by reading its byte range only and
+ * wrapping it into the prolog and the root start-tag and end-tag of the document, so the nodes passed to the listeners
+ * have the root as their parent. The number of the elements preceding every record is indexed as well, hence the ids
+ * and positions of the nodes are the same as if the document was parsed as a whole.
+ * <p>
+ * The index is created with {@link RecordIndexFactory} and can be written to a sidecar file, to be read again as long
+ * as the document has not been modified since.
+ */
+public final class RecordIndex {
+    static final int MAGIC_NUMBER = 0x58534958;
+    static final int VERSION = 3;
+
+    private static final String RECORD_NOT_FOUND = "No record at position %d, %d records are indexed";
+    private static final String ATTRIBUTE_NOT_INDEXED = "Attribute %s is not indexed";
+
+    private final File file;
+    private final long fileLength;
+    private final long fileLastModified;
+    private final byte[] header;
+    private final byte[] footer;
+    private final long[] recordOffsets;
+    private final int[] recordLengths;
+    private final long[] recordPositions; // ascending
+    private final long[] recordElementCounts; // elements preceding the record, excluding the root
+    private final int recordCount;
+    private final Map<String, Map<String, long[]>> recordPositionsByValueByAttribute;
+
+    RecordIndex(File file,
+                long fileLength,
+                long fileLastModified,
+                byte[] header,
+                byte[] footer,
+                long[] recordOffsets,
+                int[] recordLengths,
+                long[] recordPositions,
+                long[] recordElementCounts,
+                int recordCount,
+                Map<String, Map<String, long[]>> recordPositionsByValueByAttribute) {
+        this.file = file;
+        this.fileLength = fileLength;
+        this.fileLastModified = fileLastModified;
+        this.header = header;
+        this.footer = footer;
+        this.recordOffsets = recordOffsets;
+        this.recordLengths = recordLengths;
+        this.recordPositions = recordPositions;
+        this.recordElementCounts = recordElementCounts;
+        this.recordCount = recordCount;
+        this.recordPositionsByValueByAttribute = recordPositionsByValueByAttribute;
+    }
+
+    /**
+     * @return the number of the records within the document
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @param attributeQName qualified name of an indexed attribute
+     * @param value of the attribute
+     * @return positions of the records having the attribute of the given value, in document order
+     * @throws IllegalArgumentException if the attribute is not indexed
+     */
+    @NotNull
+    public long[] getRecordPositions(@NotNull String attributeQName, @NotNull String value) {
+        requireNonNull(attributeQName);
+        requireNonNull(value);
+
+        Map<String, long[]> recordPositionsByValue = recordPositionsByValueByAttribute.get(attributeQName);
+        if (recordPositionsByValue == null)
+            throw new IllegalArgumentException(String.format(ATTRIBUTE_NOT_INDEXED, attributeQName));
+
+        long[] recordPositions = recordPositionsByValue.get(value);
+
+        return recordPositions != null ? recordPositions.clone() : new long[0];
+    }
+
+    /**
+     * Parses the record at the given position only, as {@link SlurpNode#get} would find it among the children of the
+     * root, while the rest of the document is not read at all. The record is parsed by a new {@link XMLSlurper} created
+     * with the <code>xmlSlurperFactory</code>, numbering the nodes as if the document was parsed as a whole, so paths
+     * using {@link SlurpNode#get} match the same nodes.
+     *
+     * @param xmlSlurperFactory configuring the parser of the record
+     * @param template attaching the listeners, given the position of the record as the input
+     * @param recordPosition position of the record among all the children of the root, counted from 1
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs reading the document.
+     * @throws IndexOutOfBoundsException if there is no record at the given position
+     */
+    public void parseRecord(@NotNull XMLSlurperFactory xmlSlurperFactory, @NotNull SlurpTemplate<? super Long> template, long recordPosition) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(xmlSlurperFactory);
+        requireNonNull(template);
+
+        int index = Arrays.binarySearch(recordPositions, 0, recordCount, recordPosition);
+        if (index < 0)
+            throw new IndexOutOfBoundsException(String.format(RECORD_NOT_FOUND, recordPosition, recordCount));
+
+        byte[] document = new byte[header.length + recordLengths[index] + footer.length];
+        System.arraycopy(header, 0, document, 0, header.length);
+        System.arraycopy(footer, 0, document, document.length - footer.length, footer.length);
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            randomAccessFile.seek(recordOffsets[index]);
+            randomAccessFile.readFully(document, header.length, recordLengths[index]);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        XMLSlurper xmlSlurper = xmlSlurperFactory.createXMLSlurper(true, recordElementCounts[index], recordPosition - 1L);
+        template.apply(xmlSlurper, recordPosition);
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+    }
+
+    /**
+     * Writes the index into the given file, to be read with {@link RecordIndexFactory#readRecordIndex}.
+     *
+     * @param indexFile to write the index into
+     * @throws IOException If an IO error occurs writing the <code>indexFile</code>.
+     */
+    public void write(@NotNull File indexFile) throws IOException {
+        requireNonNull(indexFile);
+
+        DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+        try {
+            outputStream.writeInt(MAGIC_NUMBER);
+            outputStream.writeInt(VERSION);
+            outputStream.writeLong(fileLength);
+            outputStream.writeLong(fileLastModified);
+            writeBytes(outputStream, header);
+            writeBytes(outputStream, footer);
+
+            outputStream.writeInt(recordCount);
+            for (int index = 0; index < recordCount; index++) {
+                outputStream.writeLong(recordOffsets[index]);
+                outputStream.writeInt(recordLengths[index]);
+                outputStream.writeLong(recordPositions[index]);
+                outputStream.writeLong(recordElementCounts[index]);
+            }
+
+            outputStream.writeInt(recordPositionsByValueByAttribute.size());
+            for (Map.Entry<String, Map<String, long[]>> attributeEntry : recordPositionsByValueByAttribute.entrySet()) {
+                writeString(outputStream, attributeEntry.getKey());
+                outputStream.writeInt(attributeEntry.getValue().size());
+
+                for (Map.Entry<String, long[]> valueEntry : attributeEntry.getValue().entrySet()) {
+                    writeString(outputStream, valueEntry.getKey());
+                    outputStream.writeInt(valueEntry.getValue().length);
+
+                    for (long recordPosition : valueEntry.getValue())
+                        outputStream.writeLong(recordPosition);
+                }
+            }
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static void writeString(DataOutputStream outputStream, String value) throws IOException {
+        writeBytes(outputStream, value.getBytes("UTF-8"));
+    }
+
+    private static void writeBytes(DataOutputStream outputStream, byte[] bytes) throws IOException {
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+}
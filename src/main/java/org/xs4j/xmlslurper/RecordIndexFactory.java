@@ -0,0 +1,241 @@
+package org.xs4j.xmlslurper;
+
+import org.xml.sax.SAXException;
+import org.xs4j.XMLNode;
+import org.xs4j.util.ArraysUtil;
+import org.xs4j.util.NotNull;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * Creates the {@link RecordIndex} instances of large documents, either by reading a document once or by reading an
+ * index written before into a sidecar file.
+ */
+public class RecordIndexFactory {
+    private static final String COMPRESSED_FILE_NOT_SUPPORTED = "Compressed file %s cannot be indexed, as it cannot be read at random";
+    private static final String NOT_RECORD_INDEX = "File %s is not a record index";
+    private static final String STALE_RECORD_INDEX = "Record index %s is stale, as %s has been modified since";
+    private static final int DEFAULT_SIZE = 1024;
+
+    public static RecordIndexFactory getInstance() {
+        return new RecordIndexFactory();
+    }
+
+    private RecordIndexFactory() {
+    }
+
+    /**
+     * Reads the <code>file</code> once, splitting it into the children of the root element, and indexes the ones of the
+     * given name along with the values of the given attributes. The records keep their positions among all the children
+     * of the root. The names of the children are read with no parsing, while the records are parsed only if any
+     * attribute is to be indexed.
+     *
+     * @param file containing the document to be indexed, which must not be compressed
+     * @param recordQName qualified name of the children of the root element to be indexed
+     * @param attributeQNames qualified names of the attributes of the records to be indexed
+     * @return a new instance of <code>RecordIndex</code> of the <code>file</code>
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs reading the <code>file</code>.
+     */
+    public RecordIndex createRecordIndex(@NotNull File file, @NotNull String recordQName, @NotNull String... attributeQNames) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(file);
+        requireNonNull(recordQName);
+        requireNonNull(attributeQNames);
+        if (FileInputOpener.isCompressed(file))
+            throw new IllegalArgumentException(String.format(COMPRESSED_FILE_NOT_SUPPORTED, file));
+
+        long fileLength = file.length();
+        long fileLastModified = file.lastModified();
+
+        Map<String, Map<String, LongList>> recordPositionsByValueByAttribute = new HashMap<String, Map<String, LongList>>();
+        for (String attributeQName : attributeQNames)
+            recordPositionsByValueByAttribute.put(attributeQName, new HashMap<String, LongList>());
+
+        long[] recordOffsets = new long[DEFAULT_SIZE];
+        int[] recordLengths = new int[DEFAULT_SIZE];
+        long[] recordPositions = new long[DEFAULT_SIZE];
+        long[] recordElementCounts = new long[DEFAULT_SIZE];
+        int recordCount = 0;
+
+        byte[] encodedRecordQName = recordQName.getBytes("UTF-8");
+        XMLSlurperFactory xmlSlurperFactory = XMLSlurperFactory.getInstance();
+        RecordListener recordListener = new RecordListener();
+
+        InputStream inputStream = new MappedFileInputStream(file);
+        try {
+            DocumentSplitter documentSplitter = new DocumentSplitter(inputStream, 1); // a single child per chunk
+
+            byte[] document;
+            while ((document = documentSplitter.nextChunk()) != null) {
+                if (!DocumentSplitter.isStartingWithStartTag(document, documentSplitter.getHeader().length,
+                        documentSplitter.getChunkContentLength(), encodedRecordQName))
+                    continue;
+
+                if (recordCount == recordOffsets.length) {
+                    recordOffsets = Arrays.copyOf(recordOffsets, ArraysUtil.safelyDoubleLengthValue(recordOffsets.length));
+                    recordLengths = Arrays.copyOf(recordLengths, recordOffsets.length);
+                    recordPositions = Arrays.copyOf(recordPositions, recordOffsets.length);
+                    recordElementCounts = Arrays.copyOf(recordElementCounts, recordOffsets.length);
+                }
+
+                long recordPosition = documentSplitter.getChunkRootChildCount() + 1L;
+                recordOffsets[recordCount] = documentSplitter.getChunkOffset();
+                recordLengths[recordCount] = documentSplitter.getChunkContentLength();
+                recordPositions[recordCount] = recordPosition;
+                recordElementCounts[recordCount] = documentSplitter.getChunkElementCount();
+                recordCount++;
+
+                if (recordPositionsByValueByAttribute.isEmpty())
+                    continue;
+
+                recordListener.record = null;
+
+                XMLSourceSlurper xmlSlurper = xmlSlurperFactory.createXMLSourceSlurper();
+                xmlSlurper.getNodes("*", recordQName).find(recordListener, null); // parses up to the record start-tag
+                xmlSlurper.parse(document);
+
+                for (Map.Entry<String, Map<String, LongList>> attributeEntry : recordPositionsByValueByAttribute.entrySet()) {
+                    String value = recordListener.record.getAttribute(attributeEntry.getKey());
+                    if (value == null)
+                        continue;
+
+                    LongList valuePositions = attributeEntry.getValue().get(value);
+                    if (valuePositions == null)
+                        attributeEntry.getValue().put(value, valuePositions = new LongList());
+
+                    valuePositions.add(recordPosition);
+                }
+            }
+
+            return new RecordIndex(file, fileLength, fileLastModified, documentSplitter.getHeader(), documentSplitter.getFooter(),
+                    recordOffsets, recordLengths, recordPositions, recordElementCounts, recordCount, toArrays(recordPositionsByValueByAttribute));
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Reads the index written with {@link RecordIndex#write}.
+     *
+     * @param file containing the indexed document
+     * @param indexFile containing the index of the <code>file</code>
+     * @return a new instance of <code>RecordIndex</code> of the <code>file</code>
+     * @throws IOException If an IO error occurs reading the <code>indexFile</code>, it is not an index or the
+     * <code>file</code> has been modified since indexed.
+     */
+    public RecordIndex readRecordIndex(@NotNull File file, @NotNull File indexFile) throws IOException {
+        requireNonNull(file);
+        requireNonNull(indexFile);
+
+        DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            if (inputStream.readInt() != RecordIndex.MAGIC_NUMBER || inputStream.readInt() != RecordIndex.VERSION)
+                throw new IOException(String.format(NOT_RECORD_INDEX, indexFile));
+
+            long fileLength = inputStream.readLong();
+            long fileLastModified = inputStream.readLong();
+            if (fileLength != file.length() || fileLastModified != file.lastModified())
+                throw new IOException(String.format(STALE_RECORD_INDEX, indexFile, file));
+
+            byte[] header = readBytes(inputStream);
+            byte[] footer = readBytes(inputStream);
+
+            int recordCount = inputStream.readInt();
+            long[] recordOffsets = new long[recordCount];
+            int[] recordLengths = new int[recordCount];
+            long[] recordPositions = new long[recordCount];
+            long[] recordElementCounts = new long[recordCount];
+            for (int index = 0; index < recordCount; index++) {
+                recordOffsets[index] = inputStream.readLong();
+                recordLengths[index] = inputStream.readInt();
+                recordPositions[index] = inputStream.readLong();
+                recordElementCounts[index] = inputStream.readLong();
+            }
+
+            int attributeCount = inputStream.readInt();
+            Map<String, Map<String, long[]>> recordPositionsByValueByAttribute = new HashMap<String, Map<String, long[]>>();
+            for (int attributeIndex = 0; attributeIndex < attributeCount; attributeIndex++) {
+                String attributeQName = readString(inputStream);
+                int valueCount = inputStream.readInt();
+
+                Map<String, long[]> recordPositionsByValue = new HashMap<String, long[]>();
+                for (int valueIndex = 0; valueIndex < valueCount; valueIndex++) {
+                    String value = readString(inputStream);
+                    long[] valuePositions = new long[inputStream.readInt()];
+                    for (int index = 0; index < valuePositions.length; index++)
+                        valuePositions[index] = inputStream.readLong();
+
+                    recordPositionsByValue.put(value, valuePositions);
+                }
+
+                recordPositionsByValueByAttribute.put(attributeQName, recordPositionsByValue);
+            }
+
+            return new RecordIndex(file, fileLength, fileLastModified, header, footer, recordOffsets, recordLengths, recordPositions,
+                    recordElementCounts, recordCount, recordPositionsByValueByAttribute);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static Map<String, Map<String, long[]>> toArrays(Map<String, Map<String, LongList>> recordPositionsByValueByAttribute) {
+        Map<String, Map<String, long[]>> result = new HashMap<String, Map<String, long[]>>();
+        for (Map.Entry<String, Map<String, LongList>> attributeEntry : recordPositionsByValueByAttribute.entrySet()) {
+            Map<String, long[]> recordPositionsByValue = new HashMap<String, long[]>();
+            for (Map.Entry<String, LongList> valueEntry : attributeEntry.getValue().entrySet())
+                recordPositionsByValue.put(valueEntry.getKey(), valueEntry.getValue().toArray());
+
+            result.put(attributeEntry.getKey(), recordPositionsByValue);
+        }
+
+        return result;
+    }
+
+    private static String readString(DataInputStream inputStream) throws IOException {
+        return new String(readBytes(inputStream), "UTF-8");
+    }
+
+    private static byte[] readBytes(DataInputStream inputStream) throws IOException {
+        byte[] bytes = new byte[inputStream.readInt()];
+        inputStream.readFully(bytes);
+
+        return bytes;
+    }
+
+    private static class RecordListener implements NodeListener {
+        private XMLNode record;
+
+        @Override
+        public void onNode(@NotNull XMLNode node) {
+            record = node;
+        }
+    }
+
+    private static class LongList {
+        private long[] values = new long[1];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, ArraysUtil.safelyDoubleLengthValue(values.length));
+
+            values[size++] = value;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.xs4j.xmlslurper;
+
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps {@link SAXParser} instances confined to the threads which used them, so consecutive parsing on a thread reuses
+ * a parser instead of creating a new one. Parsers are kept per {@link Schema} they validate against (none included), up
+ * to a few most recently used schemas per thread. A borrowed parser is removed from the pool until returned, so nested
+ * parsing on a single thread (e.g. from within {@link NodeListener}) gets a parser of its own. Returned parsers are
+ * reset, parsers which cannot be reset are dropped.
+ */
+final class SAXParserPool {
+    private static final int MAX_SIZE = 8;
+
+    private final SAXParserFactory saxParserFactory;
+    private final ThreadLocal<Map<Schema, SAXParser>> parserBySchema = new ThreadLocal<Map<Schema, SAXParser>>() {
+        @Override
+        protected Map<Schema, SAXParser> initialValue() {
+            return new LinkedHashMap<Schema, SAXParser>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Schema, SAXParser> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            };
+        }
+    };
+
+    SAXParserPool(SAXParserFactory saxParserFactory) {
+        this.saxParserFactory = saxParserFactory;
+    }
+
+    /**
+     * @param schema to validate against, may be null
+     * @return parser validating against <code>schema</code>, which is owned by the caller until returned with
+     * {@link SAXParserPool#returnParser}
+     */
+    SAXParser borrowParser(Schema schema) throws ParserConfigurationException, SAXException {
+        SAXParser parser = parserBySchema.get().remove(schema);
+        if (parser != null)
+            return parser;
+
+        synchronized (saxParserFactory) {
+            saxParserFactory.setSchema(schema);
+            try {
+                return saxParserFactory.newSAXParser();
+            } finally {
+                saxParserFactory.setSchema(null);
+            }
+        }
+    }
+
+    /**
+     * @param schema the parser has been borrowed for, may be null
+     * @param parser borrowed with {@link SAXParserPool#borrowParser}
+     */
+    void returnParser(Schema schema, SAXParser parser) {
+        try {
+            parser.reset();
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+
+        parserBySchema.get().put(schema, parser);
+    }
+}
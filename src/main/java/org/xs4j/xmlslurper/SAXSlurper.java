@@ -1,6 +1,7 @@
 package org.xs4j.xmlslurper;
 
 import org.xml.sax.*;
+import org.xs4j.AttributeMap;
 import org.xs4j.XMLNode;
 import org.xs4j.XMLNodeFactory;
 import org.xs4j.util.NotNull;
@@ -10,14 +11,15 @@ import org.xml.sax.helpers.DefaultHandler;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringReader;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.util.Map;
 
 import static org.xs4j.util.NonNullValidator.requireNonNull;
@@ -25,61 +27,73 @@ import static org.xs4j.util.NonNullValidator.requireNonNull;
 /**
  * Created by mturski on 11/15/2016.
  */
-public class SAXSlurper extends DefaultHandler implements XMLSlurper {
-    private static long idFeed;
-
-    private final SAXParserFactory saxParserFactory;
-    private final SchemaFactory schemaFactory;
+public class SAXSlurper extends DefaultHandler implements XMLSourceSlurper {
+    private final SAXParserPool saxParserPool;
+    private final SchemaCache schemaCache;
     private final SlurpFactory slurpFactory;
     private final NodeNotifier nodeNotifier;
     private final ElementParser elementParser;
     private final EntityResolver entityResolver;
+    private final NodeStreamFactory nodeStreamFactory = new NodeStreamFactory() {
+        @Override
+        public NodeIterator createNodeIterator(Slurp slurp, InputStream inputStream) {
+            return new ThreadedNodeIterator(SAXSlurper.this, slurp, inputStream);
+        }
+
+        @Override
+        public NodePublisher createNodePublisher(Slurp slurp, InputStream inputStream, int bufferSize) {
+            return new BufferedNodePublisher(SAXSlurper.this, slurp, inputStream, bufferSize, nodeNotifier.isNodeRecyclingEnabled());
+        }
+    };
 
-    private InputStream inputStream;
+    private Closeable input;
+    private Schema schema;
     private SAXParser parser;
 
-    SAXSlurper(SAXParserFactory saxParserFactory,
-               SchemaFactory schemaFactory,
+    private final long rootContentIdOffset;
+
+    private long idFeed;
+    private int skippedDepth; // greater than 1 while inside of descendants being skipped
+
+    SAXSlurper(SAXParserPool saxParserPool,
+               SchemaCache schemaCache,
                SlurpFactory slurpFactory,
                NodeNotifier nodeNotifier,
                ElementParser elementParser,
                EntityResolver entityResolver) {
-        idFeed = 0L;
+        this(saxParserPool, schemaCache, slurpFactory, nodeNotifier, elementParser, entityResolver, 0L);
+    }
 
-        this.saxParserFactory = saxParserFactory;
-        this.schemaFactory = schemaFactory;
+    /**
+     * @param rootContentIdOffset number of the elements to be counted before the first descendant of the root, so the
+     *                            ids of a chunk of a larger document follow the ids of the elements preceding it
+     */
+    SAXSlurper(SAXParserPool saxParserPool,
+               SchemaCache schemaCache,
+               SlurpFactory slurpFactory,
+               NodeNotifier nodeNotifier,
+               ElementParser elementParser,
+               EntityResolver entityResolver,
+               long rootContentIdOffset) {
+        this.saxParserPool = saxParserPool;
+        this.schemaCache = schemaCache;
         this.slurpFactory = slurpFactory;
         this.nodeNotifier = nodeNotifier;
         this.elementParser = elementParser;
         this.entityResolver = entityResolver;
+        this.rootContentIdOffset = rootContentIdOffset;
     }
 
     @Override
     public SlurpNode getNodes(@Nullable String... nodes) {
-        return slurpFactory.createSlurpNode(nodes);
+        return slurpFactory.createSlurpNode(nodes, nodeStreamFactory);
     }
 
     @Override
     public void parse(@NotNull InputStream inputStream) throws ParserConfigurationException, SAXException, IOException {
         requireNonNull(inputStream);
 
-        this.inputStream = inputStream;
-        try {
-            saxParserFactory.setSchema(null);
-
-            parser = saxParserFactory.newSAXParser();
-            parser.parse(inputStream, this);
-        } catch (ParserConfigurationException e) {
-            throw e;
-        } catch (ParsingTerminationException e) {
-            // do not rethrow
-        } catch (SAXException e) {
-            throw e;
-        } catch (IOException e) {
-            throw e;
-        } finally {
-            close();
-        }
+        doParse(new InputSource(inputStream), inputStream);
     }
 
     @Override
@@ -87,12 +101,10 @@ public class SAXSlurper extends DefaultHandler implements XMLSlurper {
         requireNonNull(inputStream);
         requireNonNull(schemaFile);
 
-        this.inputStream = inputStream;
+        this.input = inputStream;
         try {
-            Schema schema = schemaFactory.newSchema(schemaFile);
-            saxParserFactory.setSchema(schema);
-
-            parser = saxParserFactory.newSAXParser();
+            schema = schemaCache.getSchema(schemaFile);
+            parser = saxParserPool.borrowParser(schema);
             parser.parse(inputStream, this);
         } catch (ParsingTerminationException e) {
             // do not rethrow
@@ -105,15 +117,76 @@ public class SAXSlurper extends DefaultHandler implements XMLSlurper {
         }
     }
 
+    @Override
+    public void parse(@NotNull File file) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(file);
+
+        parse(FileInputOpener.open(file));
+    }
+
+    @Override
+    public void parse(@NotNull File file, @NotNull File schemaFile) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(file);
+        requireNonNull(schemaFile);
+
+        parse(FileInputOpener.open(file), schemaFile);
+    }
+
+    @Override
+    public void parse(@NotNull byte[] bytes) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(bytes);
+
+        parse(new ByteBufferInputStream(ByteBuffer.wrap(bytes)));
+    }
+
+    @Override
+    public void parse(@NotNull ByteBuffer byteBuffer) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(byteBuffer);
+
+        parse(new ByteBufferInputStream(byteBuffer));
+    }
+
+    @Override
+    public void parse(@NotNull char[] chars) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(chars);
+
+        parse(CharBuffer.wrap(chars));
+    }
+
+    @Override
+    public void parse(@NotNull CharSequence chars) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(chars);
+
+        Reader reader = new CharSequenceReader(chars);
+
+        doParse(new InputSource(reader), reader);
+    }
+
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
-        nodeNotifier.onStartNode(elementParser.parseStartElement(uri, localName, qName, attributes));
+        if (skippedDepth > 0) {
+            idFeed++;
+            skippedDepth++;
+
+            return;
+        }
+
+        nodeNotifier.onStartNode(elementParser.parseStartElement(idFeed++, uri, localName, qName, attributes));
+
+        if (idFeed == 1L) // the root has started
+            idFeed += rootContentIdOffset;
 
         terminateParsingIfPossible();
+
+        if (!nodeNotifier.isDescendantAlignmentPossible())
+            skippedDepth = 1;
     }
 
     @Override
     public void characters(char ch[], int start, int length) throws SAXException {
+        if (skippedDepth > 1 || !nodeNotifier.isLastDescendantTextRetained())
+            return;
+
         XMLNode node = nodeNotifier.peekLastDescendant();
 
         node.appendText(ch, start, length);
@@ -121,6 +194,13 @@ public class SAXSlurper extends DefaultHandler implements XMLSlurper {
 
     @Override
     public void endElement(String uri, String localName, String qName) throws SAXException {
+        if (skippedDepth > 1) {
+            skippedDepth--;
+
+            return;
+        }
+
+        skippedDepth = 0;
         nodeNotifier.onEndNode();
 
         terminateParsingIfPossible();
@@ -141,61 +221,99 @@ public class SAXSlurper extends DefaultHandler implements XMLSlurper {
             throw new ParsingTerminationException();
     }
 
+    private void doParse(InputSource inputSource, Closeable input) throws ParserConfigurationException, SAXException, IOException {
+        this.input = input;
+        try {
+            parser = saxParserPool.borrowParser(null);
+            parser.parse(inputSource, this);
+        } catch (ParserConfigurationException e) {
+            throw e;
+        } catch (ParsingTerminationException e) {
+            // do not rethrow
+        } catch (SAXException e) {
+            throw e;
+        } catch (IOException e) {
+            throw e;
+        } finally {
+            close();
+        }
+    }
+
     private void close() throws IOException {
         idFeed = 0L;
+        skippedDepth = 0;
 
         nodeNotifier.reset();
 
-        if (inputStream != null) {
-            inputStream.close();
-            inputStream = null;
+        if (parser != null) {
+            saxParserPool.returnParser(schema, parser);
+            parser = null;
         }
+        schema = null;
 
-        if (parser != null)
-            parser = null;
+        if (input != null) {
+            input.close();
+            input = null;
+        }
     }
 
     static abstract class ElementParser {
         final XMLNodeFactory xmlNodeFactory;
+        final SymbolTable symbolTable;
+        final NodeNotifier nodeNotifier;
 
-        ElementParser(XMLNodeFactory xmlNodeFactory) {
+        ElementParser(XMLNodeFactory xmlNodeFactory, SymbolTable symbolTable, NodeNotifier nodeNotifier) {
             this.xmlNodeFactory = xmlNodeFactory;
+            this.symbolTable = symbolTable;
+            this.nodeNotifier = nodeNotifier;
+        }
+
+        abstract XMLNode parseStartElement(long id, String uri, String localName, String qName, Attributes attributes);
+
+        XMLNode createNode(long id, String namespace, String prefix, String localName, String qName, Map<String, String> attributeByName) {
+            XMLNode recyclableNode = nodeNotifier.pollRecyclableNode();
+
+            if (recyclableNode != null)
+                return xmlNodeFactory.recycleNode(recyclableNode, id, namespace, prefix, localName, qName, attributeByName);
+            else
+                return xmlNodeFactory.createNode(id, namespace, prefix, localName, qName, attributeByName);
         }
 
-        abstract XMLNode parseStartElement(String uri, String localName, String qName, Attributes attributes);
     }
 
     static class SAXNamespaceAwareElementParser extends ElementParser {
-        SAXNamespaceAwareElementParser(XMLNodeFactory xmlNodeFactory) {
-            super(xmlNodeFactory);
+        SAXNamespaceAwareElementParser(XMLNodeFactory xmlNodeFactory, SymbolTable symbolTable, NodeNotifier nodeNotifier) {
+            super(xmlNodeFactory, symbolTable, nodeNotifier);
         }
 
         @Override
-        XMLNode parseStartElement(String uri, String localName, String qName, Attributes attributes) {
-            int qNameSeparatorIndex = qName.indexOf(XMLNodeFactory.QNAME_SEPARATOR);
-            return xmlNodeFactory.createNode(
-                    idFeed++,
-                    uri.isEmpty() ? null : uri,
-                    qNameSeparatorIndex >= 0 ? qName.substring(0, qNameSeparatorIndex) : null,
-                    localName,
-                    parseAttributes(attributes));
+        XMLNode parseStartElement(long id, String uri, String localName, String qName, Attributes attributes) {
+            String canonicalQName = symbolTable.getName(qName);
+
+            return createNode(
+                    id,
+                    uri.isEmpty() ? null : symbolTable.getName(uri),
+                    symbolTable.getPrefix(canonicalQName),
+                    symbolTable.getName(localName),
+                    canonicalQName,
+                    nodeNotifier.isNextDescendantAttributeRetained(canonicalQName) ? parseAttributes(attributes) : AttributeMap.EMPTY);
         }
 
         private Map<String, String> parseAttributes(Attributes attributes) {
-            Map<String, String> attributeByName = new HashMap<String, String>();
+            if (attributes.getLength() == 0)
+                return AttributeMap.EMPTY;
+
+            Map<String, String> attributeByName = new AttributeMap(attributes.getLength());
 
             String qName;
-            int prefixIndex;
-            String attrNamespace;
+            String prefix;
             for (int index = 0; index < attributes.getLength(); index++) {
-                qName = attributes.getQName(index);
+                qName = symbolTable.getName(attributes.getQName(index));
                 attributeByName.put(qName, attributes.getValue(index));
 
-                prefixIndex = qName.indexOf(XMLNodeFactory.QNAME_SEPARATOR);
-                if (prefixIndex > 0 && !qName.startsWith(XMLConstants.XMLNS_ATTRIBUTE)) {
-                    attrNamespace = XMLNodeFactory.XMLNS_WITH_SEPARATOR + qName.substring(0, prefixIndex);
-                    attributeByName.put(attrNamespace, attributes.getURI(index));
-                }
+                prefix = symbolTable.getPrefix(qName);
+                if (prefix != null && !prefix.isEmpty() && !qName.startsWith(XMLConstants.XMLNS_ATTRIBUTE))
+                    attributeByName.put(symbolTable.getXmlnsQName(prefix), attributes.getURI(index));
             }
 
             return attributeByName;
@@ -203,20 +321,31 @@ public class SAXSlurper extends DefaultHandler implements XMLSlurper {
     }
 
     static class SAXNamespaceBlindElementParser extends ElementParser {
-        SAXNamespaceBlindElementParser(XMLNodeFactory xmlNodeFactory) {
-            super(xmlNodeFactory);
+        SAXNamespaceBlindElementParser(XMLNodeFactory xmlNodeFactory, SymbolTable symbolTable, NodeNotifier nodeNotifier) {
+            super(xmlNodeFactory, symbolTable, nodeNotifier);
         }
 
         @Override
-        XMLNode parseStartElement(String uri, String localName, String qName, Attributes attributes) {
-            return xmlNodeFactory.createNode(idFeed++, localName, parseAttributes(attributes));
+        XMLNode parseStartElement(long id, String uri, String localName, String qName, Attributes attributes) {
+            String canonicalLocalName = symbolTable.getName(localName);
+
+            return createNode(
+                    id,
+                    null,
+                    null,
+                    canonicalLocalName,
+                    canonicalLocalName,
+                    nodeNotifier.isNextDescendantAttributeRetained(canonicalLocalName) ? parseAttributes(attributes) : AttributeMap.EMPTY);
         }
 
         private Map<String, String> parseAttributes(Attributes attributes) {
-            Map<String, String> attributeByName = new HashMap<String, String>();
+            if (attributes.getLength() == 0)
+                return AttributeMap.EMPTY;
+
+            Map<String, String> attributeByName = new AttributeMap(attributes.getLength());
 
             for (int index = 0; index < attributes.getLength(); index++)
-                attributeByName.put(attributes.getLocalName(index), attributes.getValue(index));
+                attributeByName.put(symbolTable.getName(attributes.getLocalName(index)), attributes.getValue(index));
 
             return attributeByName;
         }
@@ -0,0 +1,65 @@
+package org.xs4j.xmlslurper;
+
+import org.xml.sax.SAXException;
+
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps {@link Schema} instances compiled from the schema files, so validating many documents against the same file
+ * compiles it once. The schemas are keyed by the absolute path and the modification time of the file, hence a
+ * modified file is compiled again. Files imported or included by the schema file are not tracked. Compiled schemas are
+ * immutable and thread safe, hence a single cache is shared among the slurpers, while compiling is serialized as
+ * {@link SchemaFactory} is not thread safe. The cache is cleared once it exceeds its capacity.
+ */
+final class SchemaCache {
+    private static final int MAX_SIZE = 64;
+
+    private final SchemaFactory schemaFactory;
+    private final ConcurrentMap<String, CachedSchema> schemaByPath = new ConcurrentHashMap<String, CachedSchema>();
+
+    SchemaCache(SchemaFactory schemaFactory) {
+        this.schemaFactory = schemaFactory;
+    }
+
+    /**
+     * @param schemaFile file containing the schema
+     * @return <code>Schema</code> compiled from <code>schemaFile</code>
+     * @throws SAXException if the schema could not be compiled
+     */
+    Schema getSchema(File schemaFile) throws SAXException {
+        String path = schemaFile.getAbsolutePath();
+        long lastModified = schemaFile.lastModified();
+
+        CachedSchema cachedSchema = schemaByPath.get(path);
+        if (cachedSchema != null && cachedSchema.lastModified == lastModified)
+            return cachedSchema.schema;
+
+        synchronized (schemaFactory) {
+            cachedSchema = schemaByPath.get(path);
+            if (cachedSchema != null && cachedSchema.lastModified == lastModified)
+                return cachedSchema.schema;
+
+            Schema schema = schemaFactory.newSchema(schemaFile);
+
+            if (schemaByPath.size() >= MAX_SIZE)
+                schemaByPath.clear();
+            schemaByPath.put(path, new CachedSchema(lastModified, schema));
+
+            return schema;
+        }
+    }
+
+    private static class CachedSchema {
+        private final long lastModified;
+        private final Schema schema;
+
+        private CachedSchema(long lastModified, Schema schema) {
+            this.lastModified = lastModified;
+            this.schema = schema;
+        }
+    }
+}
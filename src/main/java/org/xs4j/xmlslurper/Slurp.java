@@ -1,7 +1,10 @@
 package org.xs4j.xmlslurper;
 
+import org.xs4j.util.NotNull;
 import org.xs4j.util.Nullable;
 
+import java.io.InputStream;
+
 /**
  * Base API for node/attribute name/attribute value searching. Provides methods to attach {@link NodeListener} instances
  * and hence retrieve required nodes. Allows searching for single occurrence/multiple occurrences of the required nodes.
@@ -51,4 +54,33 @@ public interface Slurp {
      * @param endNodeListener to provide end-tag related element data to
      */
     void findAll(@Nullable NodeListener startNodeListener, @Nullable NodeListener endNodeListener);
+
+    /**
+     * Parses the given {@link InputStream} incrementally as the returned {@link NodeIterator} is advanced, which yields
+     * every element matching the search pattern upon its end-tag. Listeners attached to the same parser beforehand are
+     * signaled as well. The parsing goes no further than the next matching element, so the iteration may be abandoned
+     * at any point with {@link NodeIterator#close()}, which ends the parsing and releases the resources. The resources
+     * are released as well once the iteration is over.
+     *
+     * @param inputStream containing the content to be parsed
+     * @return an iterator over the matching nodes
+     */
+    @NotNull
+    NodeIterator iterate(@NotNull InputStream inputStream);
+
+    /**
+     * Returns a {@link NodePublisher} which parses the given {@link InputStream} once subscribed to, publishing every
+     * element matching the search pattern upon its end-tag. The parsing runs on a thread of its own, which pauses once
+     * <code>bufferSize</code> nodes are awaiting the subscriber's demand, so slow subscribers slow the parsing down
+     * instead of the nodes being buffered without a limit. Listeners attached to the same parser beforehand are
+     * signaled as well, on the parsing thread. With node recycling enabled (see
+     * {@link XMLSlurperFactory#enableNodeRecycling}) the nodes are copied before being buffered, so the subscriber
+     * receives nodes which are not reused by the parser.
+     *
+     * @param inputStream containing the content to be parsed
+     * @param bufferSize maximum number of nodes awaiting the subscriber's demand
+     * @return a publisher of the matching nodes
+     */
+    @NotNull
+    NodePublisher publish(@NotNull InputStream inputStream, int bufferSize);
 }
@@ -13,5 +13,16 @@ abstract class SlurpAlignment {
 
     abstract boolean checkAlignment(Deque<XMLNode> descendants);
 
+    abstract boolean checkConstraints(XMLNode lastNode);
+
     abstract List<String> getPath();
+
+    /**
+     * @param lastNode aligned with the path
+     * @return true if neither <code>lastNode</code> nor any node following it can satisfy the constraints, hence the
+     * listeners can be unregistered
+     */
+    boolean isExhaustedBy(XMLNode lastNode) {
+        return false;
+    }
 }
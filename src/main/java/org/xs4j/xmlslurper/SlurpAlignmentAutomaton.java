@@ -0,0 +1,250 @@
+package org.xs4j.xmlslurper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.xs4j.xmlslurper.SlurpAlignmentFactory.DEPTH_MARKER;
+import static org.xs4j.xmlslurper.SlurpAlignmentFactory.SIBLING_MARKER;
+
+/**
+ * Combines the paths of all registered {@link SlurpAlignment} instances into a single automaton which is advanced once
+ * per start-tag. Each path is a chain of NFA states (one per path name plus an accepting one) and the DFA states are
+ * built lazily out of the NFA state sets reached for the given element names. Hence the cost of finding aligned paths
+ * does not depend on the number of registered paths once the reachable states are cached.
+ */
+final class SlurpAlignmentAutomaton {
+    private static final int DEFAULT_SIZE = 16;
+    private static final int MAX_CACHED_STATES = 4096;
+
+    private final Map<List<String>, Integer> pathIdByPath = new HashMap<List<String>, Integer>();
+    private final List<List<String>> paths = new ArrayList<List<String>>();
+    private final Map<BitSet, State> stateByNfaStates = new HashMap<BitSet, State>();
+    private final BitSet initialNfaStates = new BitSet();
+    private final BitSet removedNfaStates = new BitSet();
+
+    private String[] nameByNfaState = new String[DEFAULT_SIZE]; // null marks accepting state
+    private int[] pathIdByNfaState = new int[DEFAULT_SIZE];
+    private int[] firstNfaStateByPathId = new int[DEFAULT_SIZE];
+    private int nfaStateCount;
+
+    private State[] stateByDepth = new State[DEFAULT_SIZE];
+    private String[] qNameByDepth = new String[DEFAULT_SIZE];
+    private int depth;
+
+    SlurpAlignmentAutomaton() {
+        stateByDepth[0] = intern(new BitSet());
+    }
+
+    /**
+     * Adds the path to the automaton unless an equal path has been already added. If added while parsing, the states
+     * of the currently opened elements are recomputed so the path is able to align with their descendants.
+     *
+     * @param path names with <code>*</code> and <code>**</code> markers, empty path aligns with any element
+     * @return id of the path which is reported by {@link SlurpAlignmentAutomaton#getAlignedPathIds}
+     */
+    int addPath(List<String> path) {
+        List<String> namePath = path.isEmpty() ? Collections.singletonList(DEPTH_MARKER) : new ArrayList<String>(path);
+
+        Integer pathId = pathIdByPath.get(namePath);
+        if (pathId != null)
+            return pathId;
+
+        pathId = paths.size();
+        pathIdByPath.put(namePath, pathId);
+        paths.add(namePath);
+
+        if (pathId >= firstNfaStateByPathId.length)
+            firstNfaStateByPathId = Arrays.copyOf(firstNfaStateByPathId, firstNfaStateByPathId.length << 1);
+        firstNfaStateByPathId[pathId] = nfaStateCount;
+
+        ensureNfaCapacity(nfaStateCount + namePath.size() + 1);
+        initialNfaStates.set(nfaStateCount);
+        for (String name : namePath)
+            addNfaState(name, pathId);
+        addNfaState(null, pathId);
+
+        rebuild();
+
+        return pathId;
+    }
+
+    /**
+     * Removes the path from the automaton, so it neither aligns nor keeps descendants alignable anymore. Adding an equal
+     * path afterwards will result in a new id.
+     *
+     * @param pathId returned by {@link SlurpAlignmentAutomaton#addPath}
+     */
+    void removePath(int pathId) {
+        List<String> namePath = paths.get(pathId);
+        if (namePath == null)
+            return;
+
+        paths.set(pathId, null);
+        pathIdByPath.remove(namePath);
+
+        int firstNfaState = firstNfaStateByPathId[pathId];
+        initialNfaStates.clear(firstNfaState);
+        removedNfaStates.set(firstNfaState, firstNfaState + namePath.size() + 1);
+
+        rebuild();
+    }
+
+    void onStartNode(String qName) {
+        if (stateByNfaStates.size() > MAX_CACHED_STATES)
+            rebuild();
+
+        if (depth + 1 >= stateByDepth.length) {
+            stateByDepth = Arrays.copyOf(stateByDepth, stateByDepth.length << 1);
+            qNameByDepth = Arrays.copyOf(qNameByDepth, qNameByDepth.length << 1);
+        }
+
+        qNameByDepth[depth] = qName;
+        stateByDepth[depth + 1] = stateByDepth[depth].next(qName);
+        depth++;
+    }
+
+    void onEndNode() {
+        stateByDepth[depth] = null;
+        qNameByDepth[--depth] = null;
+    }
+
+    /**
+     * @return ascending ids of the paths aligned with the element most recently started
+     */
+    int[] getAlignedPathIds() {
+        return stateByDepth[depth].alignedPathIds;
+    }
+
+    /**
+     * @param qName name of the element to be started next
+     * @return true if any of the paths aligns with the element to be started next, regardless of its attributes
+     */
+    boolean isAlignmentPossible(String qName) {
+        return stateByDepth[depth].next(qName).alignedPathIds.length > 0;
+    }
+
+    /**
+     * @return false if none of the paths is able to align with any descendant of the element most recently started
+     */
+    boolean isDescendantAlignmentPossible() {
+        return stateByDepth[depth].isDescendantAlignmentPossible;
+    }
+
+    void reset() {
+        pathIdByPath.clear();
+        paths.clear();
+        initialNfaStates.clear();
+        removedNfaStates.clear();
+        nameByNfaState = new String[DEFAULT_SIZE];
+        pathIdByNfaState = new int[DEFAULT_SIZE];
+        firstNfaStateByPathId = new int[DEFAULT_SIZE];
+        nfaStateCount = 0;
+
+        stateByDepth = new State[DEFAULT_SIZE];
+        qNameByDepth = new String[DEFAULT_SIZE];
+        depth = 0;
+
+        stateByNfaStates.clear();
+        stateByDepth[0] = intern(new BitSet());
+    }
+
+    private void addNfaState(String name, int pathId) {
+        nameByNfaState[nfaStateCount] = name;
+        pathIdByNfaState[nfaStateCount] = pathId;
+        nfaStateCount++;
+    }
+
+    private void ensureNfaCapacity(int size) {
+        if (size > nameByNfaState.length) {
+            int length = Math.max(size, nameByNfaState.length << 1);
+
+            nameByNfaState = Arrays.copyOf(nameByNfaState, length);
+            pathIdByNfaState = Arrays.copyOf(pathIdByNfaState, length);
+        }
+    }
+
+    private void rebuild() {
+        stateByNfaStates.clear();
+
+        stateByDepth[0] = intern((BitSet)initialNfaStates.clone());
+        for (int index = 0; index < depth; index++)
+            stateByDepth[index + 1] = stateByDepth[index].next(qNameByDepth[index]);
+    }
+
+    private State intern(BitSet nfaStates) {
+        State state = stateByNfaStates.get(nfaStates);
+        if (state == null) {
+            state = new State(nfaStates);
+            stateByNfaStates.put(nfaStates, state);
+        }
+
+        return state;
+    }
+
+    private BitSet move(BitSet nfaStates, String qName) {
+        BitSet nextNfaStates = new BitSet(nfaStateCount);
+
+        String name;
+        for (int nfaState = nfaStates.nextSetBit(0); nfaState >= 0; nfaState = nfaStates.nextSetBit(nfaState + 1)) {
+            name = nameByNfaState[nfaState];
+
+            if (name == null || removedNfaStates.get(nfaState))
+                continue;
+
+            if (name.equals(DEPTH_MARKER)) { // matches one or more elements, so stay and advance at the same time
+                nextNfaStates.set(nfaState);
+                nextNfaStates.set(nfaState + 1);
+            } else if (name.equals(SIBLING_MARKER) || name.equals(qName))
+                nextNfaStates.set(nfaState + 1);
+        }
+
+        return nextNfaStates;
+    }
+
+    private int[] getAcceptedPathIds(BitSet nfaStates) {
+        int[] pathIds = new int[nfaStates.cardinality()];
+        int pathIdCount = 0;
+
+        for (int nfaState = nfaStates.nextSetBit(0); nfaState >= 0; nfaState = nfaStates.nextSetBit(nfaState + 1))
+            if (nameByNfaState[nfaState] == null && !removedNfaStates.get(nfaState))
+                pathIds[pathIdCount++] = pathIdByNfaState[nfaState];
+
+        return Arrays.copyOf(pathIds, pathIdCount);
+    }
+
+    private boolean hasAdvanceableNfaState(BitSet nfaStates) {
+        for (int nfaState = nfaStates.nextSetBit(0); nfaState >= 0; nfaState = nfaStates.nextSetBit(nfaState + 1))
+            if (nameByNfaState[nfaState] != null && !removedNfaStates.get(nfaState))
+                return true;
+
+        return false;
+    }
+
+    private final class State {
+        private final BitSet nfaStates;
+        private final int[] alignedPathIds;
+        private final boolean isDescendantAlignmentPossible;
+        private final Map<String, State> nextByQName = new HashMap<String, State>();
+
+        private State(BitSet nfaStates) {
+            this.nfaStates = nfaStates;
+            this.alignedPathIds = getAcceptedPathIds(nfaStates);
+            this.isDescendantAlignmentPossible = hasAdvanceableNfaState(nfaStates);
+        }
+
+        private State next(String qName) {
+            State next = nextByQName.get(qName);
+            if (next == null) {
+                next = intern(move(nfaStates, qName));
+                nextByQName.put(qName, next);
+            }
+
+            return next;
+        }
+    }
+}
@@ -9,8 +9,8 @@ import java.util.regex.Pattern;
  * Created by mturski on 11/13/2016.
  */
 final class SlurpAlignmentFactory {
-    private static final String SIBLING_MARKER = "*";
-    private static final String DEPTH_MARKER = "**";
+    static final String SIBLING_MARKER = "*";
+    static final String DEPTH_MARKER = "**";
 
     SlurpAlignmentFactory() {
     }
@@ -98,9 +98,13 @@ final class SlurpAlignmentFactory {
     }
 
     public SlurpAlignment copyAlignmentAndSelectNthNode(SlurpAlignment slurpAlignment, long nodeIndex) {
+        return copyAlignmentAndSelectNodeRange(slurpAlignment, nodeIndex, nodeIndex);
+    }
+
+    SlurpAlignment copyAlignmentAndSelectNodeRange(SlurpAlignment slurpAlignment, long fromNodeIndex, long toNodeIndex) {
         List<String> qNamePath = new ArrayList<String>(slurpAlignment.getPath());
 
-        return new SlurpNthElementAlignmentWrapper(getSlurpAlignment(qNamePath), nodeIndex, new PositionCounter());
+        return new SlurpNthElementAlignmentWrapper(getSlurpAlignment(qNamePath), fromNodeIndex, toNodeIndex, new PositionCounter());
     }
 
     private class DefaultSlurpAlignment extends SlurpAlignment {
@@ -114,6 +118,11 @@ final class SlurpAlignmentFactory {
             return true;
         }
 
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            return true;
+        }
+
         @Override
         public List<String> getPath() {
             return new ArrayList<String>();
@@ -151,6 +160,11 @@ final class SlurpAlignmentFactory {
             return checkAlignment(descendants.size(), descendants.peekLast());
         }
 
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            return true;
+        }
+
         @Override
         public List<String> getPath() {
             return namePath;
@@ -223,6 +237,11 @@ final class SlurpAlignmentFactory {
             return descIter.hasNext();
         }
 
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            return true;
+        }
+
         @Override
         public List<String> getPath() {
             return namePath;
@@ -231,27 +250,47 @@ final class SlurpAlignmentFactory {
 
     private class SlurpNthElementAlignmentWrapper extends SlurpAlignment {
         private final SlurpAlignment slurpAlignment;
-        private final long nodeIndex;
+        private final long fromNodeIndex;
+        private final long toNodeIndex;
         private final PositionCounter positionCounter;
+        private final boolean isRootChildPath; // the root is the only parent, hence positions never start over
 
-        public SlurpNthElementAlignmentWrapper(SlurpAlignment slurpAlignment, long nodeIndex, PositionCounter positionCounter) {
+        public SlurpNthElementAlignmentWrapper(SlurpAlignment slurpAlignment, long fromNodeIndex, long toNodeIndex, PositionCounter positionCounter) {
             this.slurpAlignment = slurpAlignment;
-            this.nodeIndex = nodeIndex;
+            this.fromNodeIndex = fromNodeIndex;
+            this.toNodeIndex = toNodeIndex;
             this.positionCounter = positionCounter;
+
+            List<String> path = slurpAlignment.getPath();
+            this.isRootChildPath = path.size() == 2 && !path.contains(DEPTH_MARKER);
         }
 
         @Override
         boolean checkAlignment(int depth, XMLNode lastNode) {
             long nodeOccurence = positionCounter.getNodePosition(depth);
 
-            return slurpAlignment.checkAlignment(depth, lastNode) && nodeOccurence == nodeIndex;
+            return slurpAlignment.checkAlignment(depth, lastNode) && isInRange(nodeOccurence);
         }
 
         @Override
         boolean checkAlignment(Deque<XMLNode> descendants) {
             long nodeOccurence = positionCounter.getNodePosition(descendants.size());
 
-            return slurpAlignment.checkAlignment(descendants) && nodeOccurence == nodeIndex;
+            return slurpAlignment.checkAlignment(descendants) && isInRange(nodeOccurence);
+        }
+
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            return isInRange(lastNode.getPosition());
+        }
+
+        @Override
+        boolean isExhaustedBy(XMLNode lastNode) {
+            return isRootChildPath && lastNode.getPosition() > toNodeIndex;
+        }
+
+        private boolean isInRange(long nodeOccurence) {
+            return nodeOccurence >= fromNodeIndex && nodeOccurence <= toNodeIndex;
         }
 
         @Override
@@ -279,6 +318,11 @@ final class SlurpAlignmentFactory {
             return slurpAlignment.checkAlignment(descendants) && descendants.peekLast().hasAttribute(attrQName);
         }
 
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            return lastNode.hasAttribute(attrQName);
+        }
+
         @Override
         List<String> getPath() {
             return slurpAlignment.getPath();
@@ -306,6 +350,11 @@ final class SlurpAlignmentFactory {
             return slurpAlignment.checkAlignment(descendants) && attrValue.equals(descendants.peekLast().getAttribute(attrQName));
         }
 
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            return attrValue.equals(lastNode.getAttribute(attrQName));
+        }
+
         @Override
         List<String> getPath() {
             return slurpAlignment.getPath();
@@ -353,6 +402,13 @@ final class SlurpAlignmentFactory {
             return false;
         }
 
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            String actualAttrValue = lastNode.getAttribute(attrQName);
+
+            return actualAttrValue != null && isAttributeValueOutsideExcludedRange(actualAttrValue);
+        }
+
         @Override
         List<String> getPath() {
             return slurpAlignment.getPath();
@@ -391,6 +447,13 @@ final class SlurpAlignmentFactory {
             return false;
         }
 
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            String actualAttrValue = lastNode.getAttribute(attrQName);
+
+            return actualAttrValue != null && valuePattern.matcher(actualAttrValue).find();
+        }
+
         @Override
         List<String> getPath() {
             return slurpAlignment.getPath();
@@ -430,6 +493,13 @@ final class SlurpAlignmentFactory {
             return false;
         }
 
+        @Override
+        boolean checkConstraints(XMLNode lastNode) {
+            String actualAttrValue = lastNode.getAttribute(attrQName);
+
+            return actualAttrValue != null && actualAttrValue.startsWith(value);
+        }
+
         @Override
         List<String> getPath() {
             return slurpAlignment.getPath();
@@ -5,12 +5,17 @@ import org.xs4j.xmlslurper.NodeNotifier.FindOneData;
 import org.xs4j.util.NotNull;
 import org.xs4j.util.Nullable;
 
+import java.io.InputStream;
+
 import static org.xs4j.util.NonNullValidator.requireNonNull;
 
 /**
  * Created by mturski on 11/21/2016.
  */
 final class SlurpFactory {
+    private static final String ILLEGAL_BUFFER_SIZE = "Buffer size must be positive, but was %d";
+    private static final String ILLEGAL_NODE_INDEX_RANGE = "Node index range must not be empty, but was from %d to %d";
+
     private final NodeNotifier nodeNotifier;
     private final SlurpAlignmentFactory slurpAlignmentFactory;
 
@@ -19,39 +24,58 @@ final class SlurpFactory {
         this.slurpAlignmentFactory = slurpAlignmentFactory;
     }
 
-    SlurpNode createSlurpNode(String[] nodes) {
+    SlurpNode createSlurpNode(String[] nodes, NodeStreamFactory nodeStreamFactory) {
         if (nodes != null) {
             requireNonNull(nodes);
 
-            return new SlurpNodeImpl(slurpAlignmentFactory.createAlignmentAndAddNodes(nodes));
+            return new SlurpNodeImpl(slurpAlignmentFactory.createAlignmentAndAddNodes(nodes), nodeStreamFactory);
         } else
-            return new SlurpNodeImpl(slurpAlignmentFactory.createEmpty());
+            return new SlurpNodeImpl(slurpAlignmentFactory.createEmpty(), nodeStreamFactory);
+    }
+
+    static void requireBufferSizePositive(int bufferSize) {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException(String.format(ILLEGAL_BUFFER_SIZE, bufferSize));
+    }
+
+    static void requireNodeIndexRangeNotEmpty(long fromNodeIndex, long toNodeIndex) {
+        if (fromNodeIndex > toNodeIndex)
+            throw new IllegalArgumentException(String.format(ILLEGAL_NODE_INDEX_RANGE, fromNodeIndex, toNodeIndex));
     }
 
     private class SlurpNodeImpl implements SlurpNode {
         private final SlurpAlignment slurpAlignment;
+        private final NodeStreamFactory nodeStreamFactory;
 
-        private SlurpNodeImpl(SlurpAlignment slurpAlignment) {
+        private SlurpNodeImpl(SlurpAlignment slurpAlignment, NodeStreamFactory nodeStreamFactory) {
             this.slurpAlignment = slurpAlignment;
+            this.nodeStreamFactory = nodeStreamFactory;
         }
 
         @Override
         public SlurpNode node(@NotNull String qName) {
             requireNonNull(qName);
 
-            return new SlurpNodeImpl(slurpAlignmentFactory.copyAlignmentAndAddNode(slurpAlignment, qName));
+            return new SlurpNodeImpl(slurpAlignmentFactory.copyAlignmentAndAddNode(slurpAlignment, qName), nodeStreamFactory);
         }
 
         @Override
         public SlurpNode get(long nodeIndex) {
-            return new SlurpNodeImpl(slurpAlignmentFactory.copyAlignmentAndSelectNthNode(slurpAlignment, nodeIndex));
+            return new SlurpNodeImpl(slurpAlignmentFactory.copyAlignmentAndSelectNthNode(slurpAlignment, nodeIndex), nodeStreamFactory);
+        }
+
+        @Override
+        public SlurpNode get(long fromNodeIndex, long toNodeIndex) {
+            requireNodeIndexRangeNotEmpty(fromNodeIndex, toNodeIndex);
+
+            return new SlurpNodeImpl(slurpAlignmentFactory.copyAlignmentAndSelectNodeRange(slurpAlignment, fromNodeIndex, toNodeIndex), nodeStreamFactory);
         }
 
         @Override
         public SlurpAttribute attr(@NotNull String qName) {
             requireNonNull(qName);
 
-            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttribute(slurpAlignment, qName));
+            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttribute(slurpAlignment, qName), nodeStreamFactory);
         }
 
         @Override
@@ -73,48 +97,65 @@ final class SlurpFactory {
         public void findAll(@Nullable NodeListener startNodeListener, @Nullable NodeListener endNodeListener) {
             nodeNotifier.addFindData(new FindAllData(slurpAlignment, startNodeListener, endNodeListener));
         }
+
+        @Override
+        public NodeIterator iterate(@NotNull InputStream inputStream) {
+            requireNonNull(inputStream);
+
+            return nodeStreamFactory.createNodeIterator(this, inputStream);
+        }
+
+        @Override
+        public NodePublisher publish(@NotNull InputStream inputStream, int bufferSize) {
+            requireNonNull(inputStream);
+            requireBufferSizePositive(bufferSize);
+
+            return nodeStreamFactory.createNodePublisher(this, inputStream, bufferSize);
+        }
     }
 
     private class SlurpAttributeImpl implements SlurpAttribute {
         private final SlurpAlignment slurpAlignment;
+        private final NodeStreamFactory nodeStreamFactory;
 
-        private SlurpAttributeImpl(SlurpAlignment slurpAlignment) {
+        private SlurpAttributeImpl(SlurpAlignment slurpAlignment, NodeStreamFactory nodeStreamFactory) {
             this.slurpAlignment = slurpAlignment;
+            this.nodeStreamFactory = nodeStreamFactory;
         }
 
         @Override
         public Slurp is(@NotNull String value) {
             requireNonNull(value);
 
-            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeValue(slurpAlignment, value));
+            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeValue(slurpAlignment, value), nodeStreamFactory);
         }
 
         @Override
         public Slurp startsWith(@NotNull String value) {
             requireNonNull(value);
 
-            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeStartsWithValue(slurpAlignment, value));
+            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeStartsWithValue(slurpAlignment, value), nodeStreamFactory);
         }
 
         @Override
         public Slurp regex(@NotNull String regex) {
             requireNonNull(regex);
 
-            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeRegexValue(slurpAlignment, regex));
+            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeRegexValue(slurpAlignment, regex), nodeStreamFactory);
         }
 
         @Override
         public Slurp isNot(@NotNull String value) {
             requireNonNull(value);
 
-            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeExcludedValue(slurpAlignment, value));
+            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeExcludedValue(slurpAlignment, value), nodeStreamFactory);
         }
 
         @Override
         public Slurp isNot(@NotNull String... values) {
             requireNonNull(values);
 
-            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeExcludedValues(slurpAlignment, values));
+            return new SlurpAttributeImpl(slurpAlignmentFactory.copyAlignmentAndAddAttributeExcludedValues(slurpAlignment, values), nodeStreamFactory);
         }
 
         @Override
@@ -136,5 +177,20 @@ final class SlurpFactory {
         public void findAll(@Nullable NodeListener startNodeListener, @Nullable NodeListener endNodeListener) {
             nodeNotifier.addFindData(new FindAllData(slurpAlignment, startNodeListener, endNodeListener));
         }
+
+        @Override
+        public NodeIterator iterate(@NotNull InputStream inputStream) {
+            requireNonNull(inputStream);
+
+            return nodeStreamFactory.createNodeIterator(this, inputStream);
+        }
+
+        @Override
+        public NodePublisher publish(@NotNull InputStream inputStream, int bufferSize) {
+            requireNonNull(inputStream);
+            requireBufferSizePositive(bufferSize);
+
+            return nodeStreamFactory.createNodePublisher(this, inputStream, bufferSize);
+        }
     }
 }
@@ -46,6 +46,21 @@ public interface SlurpNode extends Slurp {
     @NotNull
     SlurpNode get(long nodeIndex);
 
+    /**
+     * Limits the search to the current elements from n-th to m-th inclusive, specified by the <code>fromNodeIndex</code>
+     * and <code>toNodeIndex</code> parameters, the same way as {@link SlurpNode#get(long)} does for a single element.
+     * Once the children of the root element are searched for, the parsing ends as soon as the last element of the range
+     * has been passed (unless other listeners remain), so previewing the first records of a large document is not
+     * going to read it as a whole. The same applies to {@link SlurpNode#get(long)}.
+     *
+     * @param fromNodeIndex specifying the first element of the range to be searched for
+     * @param toNodeIndex specifying the last element of the range to be searched for
+     * @return a new instance of <code>SlurpNode</code> search API that may be used to further fine tune search pattern
+     * @throws IllegalArgumentException if <code>fromNodeIndex</code> is greater than <code>toNodeIndex</code>
+     */
+    @NotNull
+    SlurpNode get(long fromNodeIndex, long toNodeIndex);
+
     /**
      * Limits the search to an existence of the attribute with given qualified name (local name with/without prefix) on
      * the current element.
@@ -0,0 +1,20 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.NotNull;
+
+/**
+ * Defines the search patterns and the listeners of every document parsed by the {@link XMLBatchSlurper}. Each document
+ * is parsed by a new {@link XMLSlurper}, possibly on a different thread, hence the listeners are shared among the
+ * threads unless created anew on every call.
+ *
+ * @param <T> type of input
+ */
+public interface SlurpTemplate<T> {
+    /**
+     * Implement the following to attach the listeners via {@link XMLSlurper#getNodes} before the document is parsed.
+     *
+     * @param xmlSlurper dedicated to the <code>input</code>
+     * @param input about to be parsed
+     */
+    void apply(@NotNull XMLSlurper xmlSlurper, @NotNull T input);
+}
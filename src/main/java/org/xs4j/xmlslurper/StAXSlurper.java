@@ -0,0 +1,468 @@
+package org.xs4j.xmlslurper;
+
+import org.xml.sax.SAXException;
+import org.xs4j.AttributeMap;
+import org.xs4j.XMLNode;
+import org.xs4j.XMLNodeFactory;
+import org.xs4j.util.NotNull;
+import org.xs4j.util.Nullable;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * Pull based {@link XMLSlurper} driven by {@link XMLStreamReader}. The parsing loop stops as soon as there are no
+ * listeners left, with no need to throw an exception out of the parser's callbacks. The StAX implementation is
+ * obtained with {@link XMLInputFactory#newInstance()}, hence any implementation available via the service loader is
+ * going to be used. {@link XMLStreamReader} provides no means of schema validation, hence documents to be validated are
+ * parsed by a {@link SAXSlurper} notifying the same listeners instead.
+ */
+public class StAXSlurper implements XMLSourceSlurper {
+    private final XMLInputFactory xmlInputFactory;
+    private final SlurpFactory slurpFactory;
+    private final NodeNotifier nodeNotifier;
+    private final StAXElementParser elementParser;
+    private final SAXSlurper schemaValidatingSlurper;
+    private final NodeStreamFactory nodeStreamFactory = new NodeStreamFactory() {
+        @Override
+        public NodeIterator createNodeIterator(Slurp slurp, InputStream inputStream) {
+            return new StAXNodeIterator(slurp, inputStream);
+        }
+
+        @Override
+        public NodePublisher createNodePublisher(Slurp slurp, InputStream inputStream, int bufferSize) {
+            return new BufferedNodePublisher(StAXSlurper.this, slurp, inputStream, bufferSize, nodeNotifier.isNodeRecyclingEnabled());
+        }
+    };
+
+    private final long rootContentIdOffset;
+
+    private long idFeed;
+    private int skippedDepth; // greater than 1 while inside of descendants being skipped
+
+    private Closeable input;
+    private XMLStreamReader reader;
+
+    StAXSlurper(XMLInputFactory xmlInputFactory,
+                SlurpFactory slurpFactory,
+                NodeNotifier nodeNotifier,
+                StAXElementParser elementParser,
+                SAXSlurper schemaValidatingSlurper) {
+        this(xmlInputFactory, slurpFactory, nodeNotifier, elementParser, schemaValidatingSlurper, 0L);
+    }
+
+    /**
+     * @param schemaValidatingSlurper sharing the <code>nodeNotifier</code>, to parse the documents to be validated with
+     * @param rootContentIdOffset number of the elements to be counted before the first descendant of the root, so the
+     *                            ids of a chunk of a larger document follow the ids of the elements preceding it
+     */
+    StAXSlurper(XMLInputFactory xmlInputFactory,
+                SlurpFactory slurpFactory,
+                NodeNotifier nodeNotifier,
+                StAXElementParser elementParser,
+                SAXSlurper schemaValidatingSlurper,
+                long rootContentIdOffset) {
+        this.xmlInputFactory = xmlInputFactory;
+        this.slurpFactory = slurpFactory;
+        this.nodeNotifier = nodeNotifier;
+        this.elementParser = elementParser;
+        this.schemaValidatingSlurper = schemaValidatingSlurper;
+        this.rootContentIdOffset = rootContentIdOffset;
+    }
+
+    @Override
+    public SlurpNode getNodes(@Nullable String... nodes) {
+        return slurpFactory.createSlurpNode(nodes, nodeStreamFactory);
+    }
+
+    @Override
+    public void parse(@NotNull InputStream inputStream) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(inputStream);
+
+        this.input = inputStream;
+        try {
+            reader = xmlInputFactory.createXMLStreamReader(inputStream);
+
+            doParse();
+        } catch (XMLStreamException e) {
+            throw toException(e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * {@link XMLStreamReader} provides no means of schema validation, hence the document is parsed by a
+     * {@link SAXSlurper} with the cached <code>Schema</code>, notifying the same listeners.
+     *
+     * @param inputStream containing the content to be parsed
+     * @param schemaFile <code>Schema</code> to be used for XML document validation purposes
+     */
+    @Override
+    public void parse(@NotNull InputStream inputStream, @NotNull File schemaFile) throws ParserConfigurationException, SAXException, IOException {
+        schemaValidatingSlurper.parse(inputStream, schemaFile);
+    }
+
+    @Override
+    public void parse(@NotNull File file) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(file);
+
+        parse(FileInputOpener.open(file));
+    }
+
+    /**
+     * {@link XMLStreamReader} provides no means of schema validation, hence the file is parsed by a {@link SAXSlurper}
+     * with the cached <code>Schema</code>, notifying the same listeners.
+     *
+     * @param file containing the content to be parsed
+     * @param schemaFile <code>Schema</code> to be used for XML document validation purposes
+     */
+    @Override
+    public void parse(@NotNull File file, @NotNull File schemaFile) throws ParserConfigurationException, SAXException, IOException {
+        schemaValidatingSlurper.parse(file, schemaFile);
+    }
+
+    @Override
+    public void parse(@NotNull byte[] bytes) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(bytes);
+
+        parse(new ByteBufferInputStream(ByteBuffer.wrap(bytes)));
+    }
+
+    @Override
+    public void parse(@NotNull ByteBuffer byteBuffer) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(byteBuffer);
+
+        parse(new ByteBufferInputStream(byteBuffer));
+    }
+
+    @Override
+    public void parse(@NotNull char[] chars) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(chars);
+
+        parse(CharBuffer.wrap(chars));
+    }
+
+    @Override
+    public void parse(@NotNull CharSequence chars) throws ParserConfigurationException, SAXException, IOException {
+        requireNonNull(chars);
+
+        Reader charReader = new CharSequenceReader(chars);
+
+        this.input = charReader;
+        try {
+            reader = xmlInputFactory.createXMLStreamReader(charReader);
+
+            doParse();
+        } catch (XMLStreamException e) {
+            throw toException(e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * @return <code>SAXException</code> wrapping the <code>e</code>, unless caused by <code>IOException</code> which is
+     * rethrown instead
+     */
+    private static SAXException toException(XMLStreamException e) throws IOException {
+        Throwable cause = e.getNestedException();
+        if (cause instanceof IOException)
+            throw (IOException)cause;
+
+        return new SAXException(e.getMessage(), e);
+    }
+
+    private void doParse() throws XMLStreamException {
+        while (parseNextEvent());
+    }
+
+    /**
+     * @return false if the document has ended or there are no listeners left, hence the parsing is over
+     */
+    private boolean parseNextEvent() throws XMLStreamException {
+        if (!reader.hasNext())
+            return false;
+
+        XMLNode node;
+
+        switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (skippedDepth > 0) {
+                    idFeed++;
+                    skippedDepth++;
+                    break;
+                }
+
+                nodeNotifier.onStartNode(elementParser.parseStartElement(idFeed++, reader));
+
+                if (idFeed == 1L) // the root has started
+                    idFeed += rootContentIdOffset;
+
+                if (isParsingTerminable())
+                    return false;
+
+                if (!nodeNotifier.isDescendantAlignmentPossible())
+                    skippedDepth = 1;
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+                if (skippedDepth > 1 || !nodeNotifier.isLastDescendantTextRetained())
+                    break;
+
+                node = nodeNotifier.peekLastDescendant();
+
+                if (node != null)
+                    node.appendText(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                if (skippedDepth > 1) {
+                    skippedDepth--;
+                    break;
+                }
+
+                skippedDepth = 0;
+                nodeNotifier.onEndNode();
+
+                if (isParsingTerminable())
+                    return false;
+                break;
+        }
+
+        return true;
+    }
+
+    private boolean isParsingTerminable() {
+        return nodeNotifier.isFindAllDataEmpty() && nodeNotifier.isFindDataEmpty();
+    }
+
+    private void close() throws IOException {
+        idFeed = 0L;
+        skippedDepth = 0;
+
+        nodeNotifier.reset();
+
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // underlying stream is closed below
+            }
+            reader = null;
+        }
+
+        if (input != null) {
+            input.close();
+            input = null;
+        }
+    }
+
+    /**
+     * Advances the parsing one event at a time on the thread calling <code>hasNext</code>, until the next matching node
+     * ends.
+     */
+    private class StAXNodeIterator implements NodeIterator, NodeListener {
+        private XMLNode nextNode;
+        private boolean isParsingOver;
+        private boolean isClosed;
+
+        private StAXNodeIterator(Slurp slurp, InputStream inputStream) {
+            slurp.findAll(null, this);
+
+            StAXSlurper.this.input = inputStream;
+            try {
+                reader = xmlInputFactory.createXMLStreamReader(inputStream);
+            } catch (XMLStreamException e) {
+                close();
+
+                throw new XMLSlurperRuntimeException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextNode == null && !isParsingOver)
+                    isParsingOver = !parseNextEvent();
+            } catch (XMLStreamException e) {
+                close();
+
+                throw new XMLSlurperRuntimeException(e);
+            }
+
+            if (nextNode == null)
+                close();
+
+            return nextNode != null;
+        }
+
+        @Override
+        public XMLNode next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            XMLNode node = nextNode;
+            nextNode = null;
+
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            if (isClosed)
+                return;
+
+            isClosed = true;
+            isParsingOver = true;
+            try {
+                StAXSlurper.this.close();
+            } catch (IOException e) {
+                throw new XMLSlurperRuntimeException(e);
+            }
+        }
+
+        @Override
+        public void onNode(@NotNull XMLNode node) {
+            nextNode = node;
+        }
+    }
+
+    static abstract class StAXElementParser {
+        final XMLNodeFactory xmlNodeFactory;
+        final SymbolTable symbolTable;
+        final NodeNotifier nodeNotifier;
+
+        StAXElementParser(XMLNodeFactory xmlNodeFactory, SymbolTable symbolTable, NodeNotifier nodeNotifier) {
+            this.xmlNodeFactory = xmlNodeFactory;
+            this.symbolTable = symbolTable;
+            this.nodeNotifier = nodeNotifier;
+        }
+
+        abstract XMLNode parseStartElement(long id, XMLStreamReader reader);
+
+        XMLNode createNode(long id, String namespace, String prefix, String localName, String qName, Map<String, String> attributeByName) {
+            XMLNode recyclableNode = nodeNotifier.pollRecyclableNode();
+
+            if (recyclableNode != null)
+                return xmlNodeFactory.recycleNode(recyclableNode, id, namespace, prefix, localName, qName, attributeByName);
+            else
+                return xmlNodeFactory.createNode(id, namespace, prefix, localName, qName, attributeByName);
+        }
+
+    }
+
+    static class StAXNamespaceAwareElementParser extends StAXElementParser {
+        StAXNamespaceAwareElementParser(XMLNodeFactory xmlNodeFactory, SymbolTable symbolTable, NodeNotifier nodeNotifier) {
+            super(xmlNodeFactory, symbolTable, nodeNotifier);
+        }
+
+        @Override
+        XMLNode parseStartElement(long id, XMLStreamReader reader) {
+            String uri = reader.getNamespaceURI();
+            String prefix = reader.getPrefix();
+            String localName = symbolTable.getName(reader.getLocalName());
+            String qName = symbolTable.getQName(prefix, localName);
+
+            return createNode(
+                    id,
+                    uri == null || uri.isEmpty() ? null : symbolTable.getName(uri),
+                    prefix == null || prefix.isEmpty() ? null : symbolTable.getName(prefix),
+                    localName,
+                    qName,
+                    nodeNotifier.isNextDescendantAttributeRetained(qName) ? parseAttributes(reader) : AttributeMap.EMPTY);
+        }
+
+        private Map<String, String> parseAttributes(XMLStreamReader reader) {
+            int namespaceCount = reader.getNamespaceCount();
+            int attributeCount = reader.getAttributeCount();
+            if (namespaceCount == 0 && attributeCount == 0)
+                return AttributeMap.EMPTY;
+
+            Map<String, String> attributeByName = new AttributeMap(namespaceCount + attributeCount);
+
+            String prefix;
+            for (int index = 0; index < namespaceCount; index++) {
+                prefix = reader.getNamespacePrefix(index);
+
+                if (prefix == null || prefix.isEmpty())
+                    attributeByName.put(XMLConstants.XMLNS_ATTRIBUTE, reader.getNamespaceURI(index));
+                else
+                    attributeByName.put(symbolTable.getXmlnsQName(prefix), reader.getNamespaceURI(index));
+            }
+
+            for (int index = 0; index < attributeCount; index++) {
+                prefix = reader.getAttributePrefix(index);
+
+                if (prefix == null || prefix.isEmpty())
+                    attributeByName.put(symbolTable.getName(reader.getAttributeLocalName(index)), reader.getAttributeValue(index));
+                else {
+                    attributeByName.put(symbolTable.getQName(prefix, reader.getAttributeLocalName(index)), reader.getAttributeValue(index));
+                    attributeByName.put(symbolTable.getXmlnsQName(prefix), reader.getAttributeNamespace(index));
+                }
+            }
+
+            return attributeByName;
+        }
+    }
+
+    static class StAXNamespaceBlindElementParser extends StAXElementParser {
+        StAXNamespaceBlindElementParser(XMLNodeFactory xmlNodeFactory, SymbolTable symbolTable, NodeNotifier nodeNotifier) {
+            super(xmlNodeFactory, symbolTable, nodeNotifier);
+        }
+
+        @Override
+        XMLNode parseStartElement(long id, XMLStreamReader reader) {
+            String localName = symbolTable.getName(reader.getLocalName());
+
+            return createNode(
+                    id,
+                    null,
+                    null,
+                    localName,
+                    localName,
+                    nodeNotifier.isNextDescendantAttributeRetained(localName) ? parseAttributes(reader) : AttributeMap.EMPTY);
+        }
+
+        private Map<String, String> parseAttributes(XMLStreamReader reader) {
+            int attributeCount = reader.getAttributeCount();
+            if (attributeCount == 0)
+                return AttributeMap.EMPTY;
+
+            Map<String, String> attributeByName = new AttributeMap(attributeCount);
+
+            for (int index = 0; index < attributeCount; index++)
+                attributeByName.put(symbolTable.getName(reader.getAttributeLocalName(index)), reader.getAttributeValue(index));
+
+            return attributeByName;
+        }
+    }
+
+    static class SkipDTDDownloadXMLResolver implements XMLResolver {
+        @Override
+        public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) throws XMLStreamException {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+    }
+}
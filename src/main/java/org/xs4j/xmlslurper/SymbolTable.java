@@ -0,0 +1,111 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.XMLNodeFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Canonicalizes element and attribute names met while parsing, so equal names share a single <code>String</code>
+ * instance, while prefixed names are split and concatenated once per name instead of once per node. Canonical names
+ * are matched by identity before falling back to <code>equals</code> by hash based lookups, e.g. the transitions of
+ * {@link SlurpAlignmentAutomaton}. The table is cleared once it exceeds its capacity, so documents with an unbounded
+ * number of distinct names do not make it grow indefinitely.
+ */
+final class SymbolTable {
+    private static final int MAX_SIZE = 8192;
+
+    private final Map<String, String> nameByName = new HashMap<String, String>();
+    private final Map<String, String> prefixByQName = new HashMap<String, String>();
+    private final Map<String, Map<String, String>> qNameByLocalNameByPrefix = new HashMap<String, Map<String, String>>();
+    private final Map<String, String> xmlnsQNameByPrefix = new HashMap<String, String>();
+
+    private int size;
+
+    /**
+     * @param name to be canonicalized, may be null
+     * @return canonical instance equal to <code>name</code>
+     */
+    String getName(String name) {
+        if (name == null)
+            return null;
+
+        String canonicalName = nameByName.get(name);
+        if (canonicalName == null) {
+            canonicalName = name;
+            put(nameByName, canonicalName, canonicalName);
+        }
+
+        return canonicalName;
+    }
+
+    /**
+     * @param qName qualified name
+     * @return canonical prefix of <code>qName</code> or null if <code>qName</code> has no prefix
+     */
+    String getPrefix(String qName) {
+        String prefix = prefixByQName.get(qName);
+        if (prefix == null && !prefixByQName.containsKey(qName)) {
+            int separatorIndex = qName.indexOf(XMLNodeFactory.QNAME_SEPARATOR);
+
+            prefix = separatorIndex >= 0 ? getName(qName.substring(0, separatorIndex)) : null;
+            put(prefixByQName, getName(qName), prefix);
+        }
+
+        return prefix;
+    }
+
+    /**
+     * @param prefix may be null
+     * @param localName local name
+     * @return canonical qualified name made of <code>prefix</code> and <code>localName</code>
+     */
+    String getQName(String prefix, String localName) {
+        if (prefix == null || prefix.isEmpty())
+            return getName(localName);
+
+        Map<String, String> qNameByLocalName = qNameByLocalNameByPrefix.get(prefix);
+        if (qNameByLocalName == null) {
+            qNameByLocalName = new HashMap<String, String>();
+            qNameByLocalNameByPrefix.put(getName(prefix), qNameByLocalName);
+        }
+
+        String qName = qNameByLocalName.get(localName);
+        if (qName == null) {
+            qName = getName(prefix + XMLNodeFactory.QNAME_SEPARATOR + localName);
+            put(qNameByLocalName, getName(localName), qName);
+        }
+
+        return qName;
+    }
+
+    /**
+     * @param prefix namespace prefix
+     * @return canonical name of the attribute declaring the namespace of <code>prefix</code>
+     */
+    String getXmlnsQName(String prefix) {
+        String xmlnsQName = xmlnsQNameByPrefix.get(prefix);
+        if (xmlnsQName == null) {
+            xmlnsQName = getName(XMLNodeFactory.XMLNS_WITH_SEPARATOR + prefix);
+            put(xmlnsQNameByPrefix, getName(prefix), xmlnsQName);
+        }
+
+        return xmlnsQName;
+    }
+
+    void clear() {
+        nameByName.clear();
+        prefixByQName.clear();
+        qNameByLocalNameByPrefix.clear();
+        xmlnsQNameByPrefix.clear();
+        size = 0;
+    }
+
+    private void put(Map<String, String> map, String key, String value) {
+        if (size >= MAX_SIZE)
+            clear();
+
+        map.put(key, value);
+        size++;
+    }
+}
@@ -0,0 +1,166 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link NodeIterator} for the parsers pushing the nodes with callbacks. The parsing runs on a thread of its own, which
+ * hands the nodes over one by one and waits until the next node is requested before parsing any further. Therefore no
+ * more than a single node is buffered and the node handed over is not reused by the parser (see
+ * {@link XMLSlurperFactory#enableNodeRecycling}) until the next one is requested. Listeners notified on many threads
+ * (see {@link ParallelSlurper}) hand their nodes over in turns.
+ */
+final class ThreadedNodeIterator implements NodeIterator, NodeListener {
+    private static final String THREAD_NAME = "xmlslurper-iterator";
+
+    private final XMLSlurper xmlSlurper;
+    private final InputStream inputStream;
+
+    private Thread parsingThread;
+    private XMLNode nextNode;
+    private boolean isNextNodeRequested;
+    private boolean isParsingOver;
+    private boolean isClosed;
+    private Throwable failure;
+
+    ThreadedNodeIterator(XMLSlurper xmlSlurper, Slurp slurp, InputStream inputStream) {
+        this.xmlSlurper = xmlSlurper;
+        this.inputStream = inputStream;
+
+        slurp.findAll(null, this);
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        if (nextNode != null)
+            return true;
+
+        if (parsingThread == null && !isParsingOver)
+            startParsing();
+
+        isNextNodeRequested = true;
+        notifyAll();
+
+        try {
+            while (nextNode == null && !isParsingOver)
+                wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+
+            throw new XMLSlurperRuntimeException(e);
+        }
+
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException)failure;
+        else if (failure instanceof Error)
+            throw (Error)failure;
+        else if (failure != null)
+            throw new XMLSlurperRuntimeException((Exception)failure);
+
+        return nextNode != null;
+    }
+
+    @Override
+    public synchronized XMLNode next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        XMLNode node = nextNode;
+        nextNode = null;
+
+        return node;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            isClosed = true;
+            notifyAll();
+
+            thread = parsingThread;
+
+            if (thread == null && !isParsingOver) {
+                isParsingOver = true;
+                closeInputStream();
+            }
+        }
+
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onNode(@NotNull XMLNode node) {
+        try {
+            while ((!isNextNodeRequested || nextNode != null) && !isClosed) // may be notified by many threads
+                wait();
+
+            if (!isClosed) {
+                nextNode = node;
+                isNextNodeRequested = false;
+                notifyAll();
+            }
+
+            while (!isNextNodeRequested && !isClosed) // the node must not be reused until the next one is requested
+                wait();
+        } catch (InterruptedException e) {
+            isClosed = true;
+        }
+
+        if (isClosed)
+            throw new IterationTerminationException();
+    }
+
+    private void startParsing() {
+        parsingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Throwable throwable = null;
+                try {
+                    xmlSlurper.parse(inputStream);
+                } catch (IterationTerminationException e) {
+                    // closed before the end of the document
+                } catch (Throwable t) {
+                    throwable = t;
+                }
+
+                synchronized (ThreadedNodeIterator.this) {
+                    if (!isClosed)
+                        failure = throwable;
+
+                    isParsingOver = true;
+                    ThreadedNodeIterator.this.notifyAll();
+                }
+            }
+        }, THREAD_NAME);
+        parsingThread.setDaemon(true);
+        parsingThread.start();
+    }
+
+    private void closeInputStream() {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            // nothing has been read, hence there is nothing to be reported
+        }
+    }
+
+    private static class IterationTerminationException extends RuntimeException {
+    }
+}
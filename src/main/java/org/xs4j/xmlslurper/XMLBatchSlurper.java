@@ -0,0 +1,37 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.NotNull;
+
+import java.io.File;
+import java.util.Collection;
+
+/**
+ * Defines an API for parsing many XML documents concurrently. Every document is parsed by its own {@link XMLSlurper}
+ * configured with the {@link SlurpTemplate}, therefore no parsing state is shared among the documents.
+ */
+public interface XMLBatchSlurper {
+    /**
+     * Parses the <code>inputs</code> concurrently and waits for all of them to be parsed. A document failing to be
+     * parsed does not stop parsing of the other ones.
+     *
+     * @param inputs documents to be parsed
+     * @param template defining the listeners of every document
+     * @param <T> type of input
+     * @throws BatchParsingException if any of the documents failed to be parsed
+     * @throws InterruptedException if interrupted while waiting, in which case unfinished parsing is cancelled
+     */
+    <T extends InputSupplier> void parse(@NotNull Collection<T> inputs, @NotNull SlurpTemplate<? super T> template) throws BatchParsingException, InterruptedException;
+
+    /**
+     * Parses the <code>inputs</code> concurrently validating them against the <code>schemaFile</code> and waits for all
+     * of them to be parsed. A document failing to be parsed does not stop parsing of the other ones.
+     *
+     * @param inputs documents to be parsed
+     * @param schemaFile <code>Schema</code> to be used for XML document validation purposes
+     * @param template defining the listeners of every document
+     * @param <T> type of input
+     * @throws BatchParsingException if any of the documents failed to be parsed
+     * @throws InterruptedException if interrupted while waiting, in which case unfinished parsing is cancelled
+     */
+    <T extends InputSupplier> void parse(@NotNull Collection<T> inputs, @NotNull File schemaFile, @NotNull SlurpTemplate<? super T> template) throws BatchParsingException, InterruptedException;
+}
@@ -0,0 +1,101 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * Submits every document to the {@link ExecutorService} as a separate task, which creates an {@link XMLSlurper} of its
+ * own with {@link XMLSlurperFactory#createXMLSlurper}. Exceptions are collected per document and thrown together once
+ * all of the tasks are done.
+ */
+class XMLBatchSlurperImpl implements XMLBatchSlurper {
+    private final XMLSlurperFactory xmlSlurperFactory;
+    private final ExecutorService executorService;
+
+    XMLBatchSlurperImpl(XMLSlurperFactory xmlSlurperFactory, ExecutorService executorService) {
+        this.xmlSlurperFactory = xmlSlurperFactory;
+        this.executorService = executorService;
+    }
+
+    @Override
+    public <T extends InputSupplier> void parse(@NotNull Collection<T> inputs, @NotNull SlurpTemplate<? super T> template) throws BatchParsingException, InterruptedException {
+        requireNonNull(inputs);
+        requireNonNull(template);
+
+        doParse(inputs, null, template);
+    }
+
+    @Override
+    public <T extends InputSupplier> void parse(@NotNull Collection<T> inputs, @NotNull File schemaFile, @NotNull SlurpTemplate<? super T> template) throws BatchParsingException, InterruptedException {
+        requireNonNull(inputs);
+        requireNonNull(schemaFile);
+        requireNonNull(template);
+
+        doParse(inputs, schemaFile, template);
+    }
+
+    private <T extends InputSupplier> void doParse(Collection<T> inputs, File schemaFile, SlurpTemplate<? super T> template) throws BatchParsingException, InterruptedException {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(inputs.size());
+        for (T input : inputs)
+            tasks.add(new ParsingTask<T>(input, schemaFile, template));
+
+        List<Future<Void>> results = executorService.invokeAll(tasks);
+
+        Map<InputSupplier, Exception> exceptionByInput = new LinkedHashMap<InputSupplier, Exception>();
+        Iterator<T> inputIterator = inputs.iterator();
+        for (Future<Void> result : results) {
+            T input = inputIterator.next();
+
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error)
+                    throw (Error)cause;
+
+                exceptionByInput.put(input, (Exception)cause);
+            }
+        }
+
+        if (!exceptionByInput.isEmpty())
+            throw new BatchParsingException(exceptionByInput, inputs.size());
+    }
+
+    private class ParsingTask<T extends InputSupplier> implements Callable<Void> {
+        private final T input;
+        private final File schemaFile;
+        private final SlurpTemplate<? super T> template;
+
+        private ParsingTask(T input, File schemaFile, SlurpTemplate<? super T> template) {
+            this.input = input;
+            this.schemaFile = schemaFile;
+            this.template = template;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            XMLSlurper xmlSlurper = xmlSlurperFactory.createXMLSlurper();
+            template.apply(xmlSlurper, input);
+
+            if (schemaFile != null)
+                xmlSlurper.parse(input.supply(), schemaFile);
+            else
+                xmlSlurper.parse(input.supply());
+
+            return null;
+        }
+    }
+}
@@ -3,27 +3,50 @@ package org.xs4j.xmlslurper;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.helpers.DefaultHandler;
 import org.xs4j.xmlslurper.SAXSlurper.*;
+import org.xs4j.xmlslurper.StAXSlurper.*;
 
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
 import org.xs4j.XMLNodeFactory;
+import org.xs4j.util.NotNull;
+import org.xs4j.util.Nullable;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.validation.SchemaFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
 
 /**
  * Created by mturski on 11/8/2016.
  */
 public final class XMLSlurperFactory {
 
+    private static final SchemaCache SCHEMA_CACHE = new SchemaCache(getSchemaFactory());
+    private static final SAXParserPool NAMESPACE_AWARE_SAX_PARSER_POOL = new SAXParserPool(getSaxParserFactory(false));
+    private static final SAXParserPool NAMESPACE_BLIND_SAX_PARSER_POOL = new SAXParserPool(getSaxParserFactory(true));
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final String ILLEGAL_CHUNK_SIZE = "Chunk size must be positive, but was %d";
+    private static final String ILLEGAL_POLL_INTERVAL = "Poll interval must be positive, but was %d";
+
     public static XMLSlurperFactory getInstance() {
         return new XMLSlurperFactory();
     }
 
     private boolean isNamespaceAwarenessDisabled;
     private boolean isDTDValidationDisabled;
+    private boolean isStAXParsingEnabled;
+    private boolean isTextRetentionLimitedToAlignedNodes;
+    private boolean isAttributeRetentionLimitedToAlignedNodes;
+    private boolean isNodeRecyclingEnabled;
 
     private XMLSlurperFactory() {
     }
@@ -54,6 +77,65 @@ public final class XMLSlurperFactory {
         return this;
     }
 
+    /**
+     * Switches the parser created with {@link XMLSlurperFactory#createXMLSlurper} from SAX callbacks to the pull based
+     * {@link javax.xml.stream.XMLStreamReader}. The StAX implementation is looked up with
+     * {@link XMLInputFactory#newInstance()}, hence faster implementations can be plugged in via the service loader.
+     * Documents to be validated against a schema are still parsed with SAX. For convenience the following method
+     * returns <code>this</code> instance of {@link XMLSlurperFactory}.
+     *
+     * @return <code>this</code> instance of <code>XMLSlurperFactory</code>
+     */
+    public final XMLSlurperFactory enableStAXParsing() {
+        this.isStAXParsingEnabled = true;
+
+        return this;
+    }
+
+    /**
+     * Limits collecting of the text to the elements matching any of the search patterns. By default text of every
+     * element is collected. Once limited, {@link org.xs4j.XMLNode#getText()} returns null for nodes not matching any
+     * pattern (e.g. parents of the matching nodes), while no memory is spent on buffering their text. For convenience
+     * the following method returns <code>this</code> instance of {@link XMLSlurperFactory}.
+     *
+     * @return <code>this</code> instance of <code>XMLSlurperFactory</code>
+     */
+    public final XMLSlurperFactory limitTextRetentionToAlignedNodes() {
+        this.isTextRetentionLimitedToAlignedNodes = true;
+
+        return this;
+    }
+
+    /**
+     * Limits parsing of the attributes to the elements whose names match any of the search patterns. By default
+     * attributes of every element are parsed. Once limited, {@link org.xs4j.XMLNode#getAttributes()} returns no
+     * attributes for nodes not matching any pattern (e.g. parents of the matching nodes), while no memory is spent on
+     * copying their attributes out of the parser. For convenience the following method returns <code>this</code>
+     * instance of {@link XMLSlurperFactory}.
+     *
+     * @return <code>this</code> instance of <code>XMLSlurperFactory</code>
+     */
+    public final XMLSlurperFactory limitAttributeRetentionToAlignedNodes() {
+        this.isAttributeRetentionLimitedToAlignedNodes = true;
+
+        return this;
+    }
+
+    /**
+     * Enables reusing of the {@link org.xs4j.XMLNode} instances. By default a new node is created for every element.
+     * Once enabled, a node is reused for a subsequent element at the same depth after its end-tag has been passed to
+     * the listeners, so steady-state parsing allocates hardly any nodes. Listeners must not keep the nodes nor their
+     * ancestors, {@link org.xs4j.XMLNodeFactory#copyNode} has to be used instead. For convenience the following method returns
+     * <code>this</code> instance of {@link XMLSlurperFactory}.
+     *
+     * @return <code>this</code> instance of <code>XMLSlurperFactory</code>
+     */
+    public final XMLSlurperFactory enableNodeRecycling() {
+        this.isNodeRecyclingEnabled = true;
+
+        return this;
+    }
+
     /**
      * Returns a new instance of {@link XMLSlurper} with namespace awareness configured with
      * {@link XMLSlurperFactory#disableNamespaceAwareness}.
@@ -61,17 +143,128 @@ public final class XMLSlurperFactory {
      * @return a new instance of <code>XMLSlurper</code>
      */
     public final XMLSlurper createXMLSlurper() {
-        XMLNodeFactory xmlNodeFactory = XMLNodeFactory.getInstance();
-        NodeNotifier nodeNotifier = getNodeNotifier();
-        SlurpAlignmentFactory slurpAlignmentFactory = getSlurpAlignmentFactory();
+        return createXMLSlurper(true);
+    }
+
+    /**
+     * Returns a new instance of {@link XMLSourceSlurper}, configured the same way as the one returned by
+     * {@link XMLSlurperFactory#createXMLSlurper()}, which parses the documents out of files and memory as well.
+     *
+     * @return a new instance of <code>XMLSourceSlurper</code>
+     */
+    public final XMLSourceSlurper createXMLSourceSlurper() {
+        return createXMLSlurper(true);
+    }
 
-        return new SAXSlurper(
-                getSaxParserFactory(isNamespaceAwarenessDisabled),
-                getSchemaFactory(),
-                getSlurpFactory(nodeNotifier, slurpAlignmentFactory),
+    /**
+     * Returns a new instance of {@link XMLSlurper} parsing the children of the root element concurrently with the
+     * <code>executorService</code>, while the listeners are notified in document order on the parsing thread. The
+     * document is split into chunks of about 1 MiB. See {@link ParallelSlurper} for the details.
+     *
+     * @param executorService to run the parsing with, which remains owned by the caller
+     * @return a new instance of <code>ParallelSlurper</code>
+     */
+    public final ParallelSlurper createParallelXMLSlurper(@NotNull ExecutorService executorService) {
+        return createParallelXMLSlurper(executorService, DEFAULT_CHUNK_SIZE, true);
+    }
+
+    /**
+     * Returns a new instance of {@link XMLSlurper} parsing the children of the root element concurrently with the
+     * <code>executorService</code>. Each chunk of the document is parsed by a new {@link XMLSlurper} created with
+     * {@link XMLSlurperFactory#createXMLSlurper}, hence the configuration of <code>this</code> factory at the time of
+     * parsing applies. See {@link ParallelSlurper} for the details.
+     *
+     * @param executorService to run the parsing with, which remains owned by the caller
+     * @param chunkSize number of bytes after which a chunk is closed at the next child of the root element
+     * @param isDeliveryOrdered true to notify the listeners in document order on the parsing thread, false to notify
+     *                          them on the threads of the <code>executorService</code> as soon as the nodes are found
+     * @return a new instance of <code>ParallelSlurper</code>
+     */
+    public final ParallelSlurper createParallelXMLSlurper(@NotNull ExecutorService executorService, int chunkSize, boolean isDeliveryOrdered) {
+        requireNonNull(executorService);
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException(String.format(ILLEGAL_CHUNK_SIZE, chunkSize));
+
+        return new ParallelSlurper(this, executorService, chunkSize, isDeliveryOrdered);
+    }
+
+    boolean isNodeRecyclingEnabled() {
+        return isNodeRecyclingEnabled;
+    }
+
+    XMLSourceSlurper createXMLSlurper(boolean isNodeRecyclingAllowed) {
+        return createXMLSlurper(isNodeRecyclingAllowed, 0L, 0L);
+    }
+
+    /**
+     * @param rootContentIdOffset number of the elements preceding the content of the root, excluding the root
+     * @param rootChildPositionOffset number of the children of the root preceding the content of the root
+     */
+    XMLSourceSlurper createXMLSlurper(boolean isNodeRecyclingAllowed, long rootContentIdOffset, long rootChildPositionOffset) {
+        XMLNodeFactory xmlNodeFactory = XMLNodeFactory.getInstance();
+        SymbolTable symbolTable = getSymbolTable();
+        NodeNotifier nodeNotifier = getNodeNotifier(
+                new PositionCounter(rootChildPositionOffset),
+                isTextRetentionLimitedToAlignedNodes,
+                isAttributeRetentionLimitedToAlignedNodes,
+                isNodeRecyclingEnabled && isNodeRecyclingAllowed);
+        SlurpFactory slurpFactory = getSlurpFactory(nodeNotifier, getSlurpAlignmentFactory());
+        SAXSlurper saxSlurper = new SAXSlurper(
+                getSAXParserPool(isNamespaceAwarenessDisabled),
+                getSchemaCache(),
+                slurpFactory,
                 nodeNotifier,
-                getSAXNamespaceSensitiveElementParser(isNamespaceAwarenessDisabled, xmlNodeFactory),
-                getEntityResolver(isDTDValidationDisabled));
+                getSAXNamespaceSensitiveElementParser(isNamespaceAwarenessDisabled, xmlNodeFactory, symbolTable, nodeNotifier),
+                getEntityResolver(isDTDValidationDisabled),
+                rootContentIdOffset);
+
+        if (isStAXParsingEnabled)
+            return new StAXSlurper(
+                    getXMLInputFactory(isDTDValidationDisabled),
+                    slurpFactory,
+                    nodeNotifier,
+                    getStAXNamespaceSensitiveElementParser(isNamespaceAwarenessDisabled, xmlNodeFactory, symbolTable, nodeNotifier),
+                    saxSlurper, // parses the documents to be validated against a schema
+                    rootContentIdOffset);
+
+        return saxSlurper;
+    }
+
+    /**
+     * Returns a new instance of {@link XMLBatchSlurper} parsing the documents with the <code>executorService</code>.
+     * Each document is parsed by a new {@link XMLSlurper} created with {@link XMLSlurperFactory#createXMLSlurper},
+     * hence the configuration of <code>this</code> factory at the time of parsing applies.
+     *
+     * @param executorService to run the parsing with, which remains owned by the caller
+     * @return a new instance of <code>XMLBatchSlurper</code>
+     */
+    public final XMLBatchSlurper createXMLBatchSlurper(@NotNull ExecutorService executorService) {
+        requireNonNull(executorService);
+
+        return new XMLBatchSlurperImpl(this, executorService);
+    }
+
+    /**
+     * Returns a new instance of {@link FollowingInputStream} reading the <code>file</code> which keeps growing, to be
+     * parsed with {@link XMLSlurper#parse(InputStream)} until {@link FollowingInputStream#stop()} is called. The state
+     * of the parsing (the ancestors of the nodes, their positions and the listeners) is kept as the file grows, rather
+     * than the file being parsed again.
+     *
+     * @param file to be followed
+     * @param pollInterval to wait for more content at the end of the <code>file</code>
+     * @param timeUnit of the <code>pollInterval</code>
+     * @param fragmentsRootQName name of the root element to wrap the fragments of the <code>file</code> into, or null
+     *                           if the <code>file</code> holds a single document
+     * @return a new instance of <code>FollowingInputStream</code>
+     * @throws IOException if the <code>file</code> cannot be opened
+     */
+    public final FollowingInputStream createFollowingInputStream(@NotNull File file, long pollInterval, @NotNull TimeUnit timeUnit, @Nullable String fragmentsRootQName) throws IOException {
+        requireNonNull(file);
+        requireNonNull(timeUnit);
+        if (pollInterval <= 0L)
+            throw new IllegalArgumentException(String.format(ILLEGAL_POLL_INTERVAL, pollInterval));
+
+        return new FollowingInputStream(file, timeUnit.toMillis(pollInterval), fragmentsRootQName);
     }
 
     static EntityResolver getEntityResolver(boolean isDTDValidationDisabled) {
@@ -82,7 +275,35 @@ public final class XMLSlurperFactory {
     }
 
     static NodeNotifier getNodeNotifier() {
-        return new NodeNotifier(new PositionCounter());
+        return getNodeNotifier(false, false, false);
+    }
+
+    static NodeNotifier getNodeNotifier(
+            boolean isTextRetentionLimitedToAlignedNodes,
+            boolean isAttributeRetentionLimitedToAlignedNodes,
+            boolean isNodeRecyclingEnabled) {
+        return getNodeNotifier(
+                new PositionCounter(),
+                isTextRetentionLimitedToAlignedNodes,
+                isAttributeRetentionLimitedToAlignedNodes,
+                isNodeRecyclingEnabled);
+    }
+
+    static NodeNotifier getNodeNotifier(
+            PositionCounter positionCounter,
+            boolean isTextRetentionLimitedToAlignedNodes,
+            boolean isAttributeRetentionLimitedToAlignedNodes,
+            boolean isNodeRecyclingEnabled) {
+        return new NodeNotifier(
+                positionCounter,
+                new SlurpAlignmentAutomaton(),
+                isTextRetentionLimitedToAlignedNodes,
+                isAttributeRetentionLimitedToAlignedNodes,
+                isNodeRecyclingEnabled);
+    }
+
+    static SymbolTable getSymbolTable() {
+        return new SymbolTable();
     }
 
     static SlurpAlignmentFactory getSlurpAlignmentFactory() {
@@ -118,17 +339,47 @@ public final class XMLSlurperFactory {
         return saxParserFactory;
     }
 
+    static SAXParserPool getSAXParserPool(boolean isNamespaceAwarenessDisabled) {
+        if (isNamespaceAwarenessDisabled)
+            return NAMESPACE_BLIND_SAX_PARSER_POOL;
+        else
+            return NAMESPACE_AWARE_SAX_PARSER_POOL;
+    }
+
+    static XMLInputFactory getXMLInputFactory(boolean isDTDValidationDisabled) {
+        XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+
+        if (isDTDValidationDisabled)
+            xmlInputFactory.setXMLResolver(new SkipDTDDownloadXMLResolver());
+
+        return xmlInputFactory;
+    }
+
     static SchemaFactory getSchemaFactory() {
         return SchemaFactory
                 .newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
     }
 
+    static SchemaCache getSchemaCache() {
+        return SCHEMA_CACHE;
+    }
+
     static ElementParser getSAXNamespaceSensitiveElementParser(
-            boolean isNamespaceAwarenessDisabled, XMLNodeFactory xmlNodeFactory) {
+            boolean isNamespaceAwarenessDisabled, XMLNodeFactory xmlNodeFactory, SymbolTable symbolTable, NodeNotifier nodeNotifier) {
+
+        if (isNamespaceAwarenessDisabled)
+            return new SAXNamespaceBlindElementParser(xmlNodeFactory, symbolTable, nodeNotifier);
+        else
+            return new SAXNamespaceAwareElementParser(xmlNodeFactory, symbolTable, nodeNotifier);
+    }
+
+    static StAXElementParser getStAXNamespaceSensitiveElementParser(
+            boolean isNamespaceAwarenessDisabled, XMLNodeFactory xmlNodeFactory, SymbolTable symbolTable, NodeNotifier nodeNotifier) {
 
         if (isNamespaceAwarenessDisabled)
-            return new SAXNamespaceBlindElementParser(xmlNodeFactory);
+            return new StAXNamespaceBlindElementParser(xmlNodeFactory, symbolTable, nodeNotifier);
         else
-            return new SAXNamespaceAwareElementParser(xmlNodeFactory);
+            return new StAXNamespaceAwareElementParser(xmlNodeFactory, symbolTable, nodeNotifier);
     }
 }
@@ -0,0 +1,10 @@
+package org.xs4j.xmlslurper;
+
+/**
+ * Wraps the exceptions thrown while parsing, where checked exceptions are not allowed, e.g. by {@link NodeIterator}.
+ */
+public class XMLSlurperRuntimeException extends RuntimeException {
+    public XMLSlurperRuntimeException(Exception e) {
+        super(e.getMessage(), e);
+    }
+}
@@ -0,0 +1,90 @@
+package org.xs4j.xmlslurper;
+
+import org.xs4j.util.NotNull;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.validation.Schema;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link XMLSlurper} parsing the documents out of sources other than an {@link java.io.InputStream} (files and
+ * documents already held in memory) with no need to wrap them into one. Kept apart from <code>XMLSlurper</code>, so
+ * its existing implementations remain valid. Instances are created with
+ * {@link XMLSlurperFactory#createXMLSourceSlurper}.
+ */
+public interface XMLSourceSlurper extends XMLSlurper {
+    /**
+     * Triggers the parsing process on the given file, which is read through memory mapped windows of 64 MiB of its
+     * content rather than a stream of copied buffers, leaving the read-ahead to the operating system. Files larger than
+     * 2 GB are supported. Gzip or zlib compressed files are detected
+     * and inflated on a separate thread ahead of the parsing.
+     *
+     * @param file containing the content to be parsed
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs reading the <code>file</code>.
+     */
+    void parse(@NotNull File file) throws ParserConfigurationException, SAXException, IOException;
+
+    /**
+     * Triggers the parsing process on the given file with the given {@link Schema}, which is read through memory mapped
+     * windows of 64 MiB of its content rather than a stream of copied buffers, leaving the read-ahead to the operating
+     * system. Files larger than 2 GB are supported. Gzip or zlib
+     * compressed files are detected and inflated on a separate thread ahead of the parsing.
+     *
+     * @param file containing the content to be parsed
+     * @param schemaFile <code>Schema</code> to be used for XML document validation purposes
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs reading the <code>file</code>.
+     */
+    void parse(@NotNull File file, @NotNull File schemaFile) throws ParserConfigurationException, SAXException, IOException;
+
+    /**
+     * Triggers the parsing process on the given bytes, read in place with no intermediate copy of the array.
+     *
+     * @param bytes containing the content to be parsed
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs.
+     */
+    void parse(@NotNull byte[] bytes) throws ParserConfigurationException, SAXException, IOException;
+
+    /**
+     * Triggers the parsing process on the remaining bytes of the given {@link ByteBuffer}, either heap or direct one,
+     * read in place with no intermediate copy. The position of the buffer is left untouched, so the buffer can be
+     * reused once this method returns.
+     *
+     * @param byteBuffer containing the content to be parsed
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs.
+     */
+    void parse(@NotNull ByteBuffer byteBuffer) throws ParserConfigurationException, SAXException, IOException;
+
+    /**
+     * Triggers the parsing process on the given characters, read in place with no intermediate copy of the array. Any
+     * encoding declared by the document is ignored.
+     *
+     * @param chars containing the content to be parsed
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs.
+     */
+    void parse(@NotNull char[] chars) throws ParserConfigurationException, SAXException, IOException;
+
+    /**
+     * Triggers the parsing process on the given {@link CharSequence} (e.g. <code>String</code>,
+     * <code>StringBuilder</code> or <code>CharBuffer</code>), read in place with no need to convert it into a
+     * <code>String</code>. Any encoding declared by the document is ignored.
+     *
+     * @param chars containing the content to be parsed
+     * @throws ParserConfigurationException if a parser cannot be created which satisfies the requested configuration
+     * @throws SAXException If parse produces a SAX error.
+     * @throws IOException If an IO error occurs.
+     */
+    void parse(@NotNull CharSequence chars) throws ParserConfigurationException, SAXException, IOException;
+}
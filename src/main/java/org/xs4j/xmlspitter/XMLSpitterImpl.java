@@ -12,6 +12,7 @@ import java.io.OutputStream;
 import java.io.Writer;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.xs4j.xmlspitter.OutputSupplierFactory.GenericOutputSupplier.ILLEGAL_SUPPLIER_ARGUMENT;
 import static org.xs4j.xmlspitter.XMLSpitterFactory.DEFAULT_XML_DOCUMENT_ENCODING;
@@ -25,14 +26,10 @@ public class XMLSpitterImpl implements XMLSpitter {
     private static final String NEWLINE = "\n";
     private static final String INDENT = "    ";
 
-    private static long idFeed;
-
     private final StreamProvider streamProvider;
 
 
     XMLSpitterImpl(StreamProvider streamProvider) {
-        idFeed = 0L;
-
         this.streamProvider = streamProvider;
     }
 
@@ -233,14 +230,16 @@ public class XMLSpitterImpl implements XMLSpitter {
     }
 
     static class InternalStreamProvider implements StreamProvider {
+        private final AtomicLong idFeed = new AtomicLong(); // streams may be requested by slurpers on many threads
+
         @Override
         public XMLStream getStream(OutputStream outputStream) throws XMLStreamException {
-            return new InternalStream(idFeed++, outputStream);
+            return new InternalStream(idFeed.getAndIncrement(), outputStream);
         }
 
         @Override
         public XMLStream getStream(Writer writer) throws XMLStreamException {
-            return new InternalStream(idFeed++, writer);
+            return new InternalStream(idFeed.getAndIncrement(), writer);
         }
     }
 
@@ -248,6 +247,7 @@ public class XMLSpitterImpl implements XMLSpitter {
         private static final String DEFAULT_ENCODING = "UTF-8";
 
         private final XMLOutputFactory xmlOutputFactory;
+        private final AtomicLong idFeed = new AtomicLong();
 
         StAXStreamProvider(XMLOutputFactory xmlOutputFactory) {
             this.xmlOutputFactory = xmlOutputFactory;
@@ -257,14 +257,14 @@ public class XMLSpitterImpl implements XMLSpitter {
         public XMLStream getStream(OutputStream outputStream) throws XMLStreamException {
             XMLStreamWriter stream = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_ENCODING);
 
-            return new StAXStream(idFeed++, stream);
+            return new StAXStream(idFeed.getAndIncrement(), stream);
         }
 
         @Override
         public XMLStream getStream(Writer writer) throws XMLStreamException {
             XMLStreamWriter stream = xmlOutputFactory.createXMLStreamWriter(writer);
 
-            return new StAXStream(idFeed++, stream);
+            return new StAXStream(idFeed.getAndIncrement(), stream);
         }
     }
 
@@ -0,0 +1,113 @@
+package org.xs4j;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class AttributeMapTest {
+    private final AttributeMap attributeMap = new AttributeMap();
+
+    @Test
+    public void givenAttributesMapReturnsThemInInsertionOrder() {
+        // given
+        attributeMap.put("attr2", "E=1");
+        attributeMap.put("attr1", "SOMEOBJ");
+
+        // when
+        Iterator<String> names = attributeMap.keySet().iterator();
+
+        // then
+        assertThat(names.next(), is("attr2"));
+        assertThat(names.next(), is("attr1"));
+        assertThat(names.hasNext(), is(false));
+    }
+
+    @Test
+    public void givenSameNamePutReplacesValue() {
+        // given
+        attributeMap.put("attr1", "SOMEOBJ");
+
+        // when
+        String previousValue = attributeMap.put(new String("attr1"), "OTHEROBJ");
+
+        // then
+        assertThat(previousValue, is("SOMEOBJ"));
+        assertThat(attributeMap.size(), is(1));
+        assertThat(attributeMap.get("attr1"), is("OTHEROBJ"));
+    }
+
+    @Test
+    public void givenManyAttributesMapFindsEachOfThem() {
+        // given
+        Map<String, String> expectedAttributes = new HashMap<String, String>();
+        for (int index = 0; index < 32; index++) {
+            attributeMap.put("attr" + index, String.valueOf(index));
+            expectedAttributes.put("attr" + index, String.valueOf(index));
+        }
+
+        // when
+        attributeMap.remove("attr7");
+        expectedAttributes.remove("attr7");
+
+        // then
+        assertThat(attributeMap.get("attr7"), is(nullValue()));
+        assertThat(attributeMap.get("attr31"), is("31"));
+        assertThat((Map<String, String>)attributeMap, is(expectedAttributes));
+    }
+
+    @Test
+    public void givenIteratorRemovalMapKeepsRemainingAttributes() {
+        // given
+        attributeMap.put("attr1", "SOMEOBJ");
+        attributeMap.put("attr2", "E=1");
+        attributeMap.put("attr3", "123");
+
+        // when
+        Iterator<String> names = attributeMap.keySet().iterator();
+        names.next();
+        names.next();
+        names.remove();
+
+        // then
+        assertThat(names.next(), is("attr3"));
+        assertThat(attributeMap.containsKey("attr2"), is(false));
+        assertThat(attributeMap.size(), is(2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void givenEmptyInstancePutThrowsException() {
+        AttributeMap.EMPTY.put("attr1", "SOMEOBJ");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void givenNullValuePutThrowsException() {
+        attributeMap.put("attr1", null);
+    }
+
+    @Test
+    public void givenNodeWithoutAttributesSetAttributeDoesNotAffectOtherNodes() {
+        // given
+        XMLNodeFactory xmlNodeFactory = XMLNodeFactory.getInstance();
+        XMLNode node = xmlNodeFactory.createNode(0L, "Object", AttributeMap.EMPTY);
+        XMLNode otherNode = xmlNodeFactory.createNode(1L, "Object", AttributeMap.EMPTY);
+
+        // when
+        node.setAttribute("attr1", "SOMEOBJ");
+
+        // then
+        assertThat(node.getAttribute("attr1"), is("SOMEOBJ"));
+        assertThat(otherNode.hasAttribute("attr1"), is(false));
+        assertThat(AttributeMap.EMPTY.isEmpty(), is(true));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void givenAttributeViewPutThrowsException() {
+        ((XMLNodeImpl)XMLNodeFactory.getInstance().createNode(0L, "Object", new AttributeMap())).getAttributeView().put("attr1", "SOMEOBJ");
+    }
+}
@@ -0,0 +1,219 @@
+package org.xs4j;
+
+import org.xs4j.util.NotNull;
+import org.xs4j.xmlspitter.InternalSpitterFactory;
+import org.xs4j.xmlspitter.XMLStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Random;
+
+import static org.xs4j.util.NonNullValidator.requireNonNull;
+
+/**
+ * Streams deterministic synthetic XML documents of configurable shape with {@link XMLStream}, so documents of any size
+ * can be produced without being held in memory. Equal configurations (including the seed) produce equal documents.
+ * <p>
+ * The document consists of <code>Records</code> root element holding {@link CorpusGenerator#withRecordCount} records.
+ * Each record is placed within {@link CorpusGenerator#withDepth} nested <code>Group</code> elements and holds
+ * {@link CorpusGenerator#withFanOut} <code>Field</code> children. Records may be nested within records up to
+ * {@link CorpusGenerator#withRecursionDepth} levels, which resembles the structures searched with <code>**</code>.
+ */
+public final class CorpusGenerator {
+    public static final String RECORDS = "Records";
+    public static final String GROUP = "Group";
+    public static final String RECORD = "Record";
+    public static final String FIELD = "Field";
+    public static final String ID = "id";
+
+    public static final String NAMESPACE = "http://xs4j.org/corpus";
+    public static final String FIELD_NAMESPACE = "http://xs4j.org/corpus/field";
+    public static final String FIELD_PREFIX = "f";
+
+    private static final int TEXT_POOL_SIZE = 1 << 16;
+
+    public static CorpusGenerator getInstance() {
+        return new CorpusGenerator();
+    }
+
+    private long recordCount = 1000L;
+    private int depth;
+    private int fanOut;
+    private int attributeCount;
+    private int textLength;
+    private int recursionDepth;
+    private boolean isNamespaceUsed;
+    private long seed;
+
+    private final XMLNodeFactory xmlNodeFactory = XMLNodeFactory.getInstance();
+
+    private Random random;
+    private char[] textPool;
+    private long idFeed;
+
+    private CorpusGenerator() {
+    }
+
+    public CorpusGenerator withRecordCount(long recordCount) {
+        this.recordCount = recordCount;
+
+        return this;
+    }
+
+    public CorpusGenerator withDepth(int depth) {
+        this.depth = depth;
+
+        return this;
+    }
+
+    public CorpusGenerator withFanOut(int fanOut) {
+        this.fanOut = fanOut;
+
+        return this;
+    }
+
+    public CorpusGenerator withAttributeCount(int attributeCount) {
+        this.attributeCount = attributeCount;
+
+        return this;
+    }
+
+    public CorpusGenerator withTextLength(int textLength) {
+        this.textLength = textLength;
+
+        return this;
+    }
+
+    public CorpusGenerator withRecursionDepth(int recursionDepth) {
+        this.recursionDepth = recursionDepth;
+
+        return this;
+    }
+
+    /**
+     * Places the elements in the default namespace, while fields get a prefixed namespace of their own.
+     */
+    public CorpusGenerator withNamespaces() {
+        this.isNamespaceUsed = true;
+
+        return this;
+    }
+
+    public CorpusGenerator withSeed(long seed) {
+        this.seed = seed;
+
+        return this;
+    }
+
+    /**
+     * @return number of <code>Record</code> elements the document contains, including the nested ones
+     */
+    public long getTotalRecordCount() {
+        return recordCount * (recursionDepth + 1);
+    }
+
+    /**
+     * @return the document written into memory
+     */
+    public byte[] generate() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        generate(outputStream);
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Writes the document and flushes <code>outputStream</code>, which is left open.
+     *
+     * @param outputStream to write the document to
+     */
+    public void generate(@NotNull OutputStream outputStream) {
+        requireNonNull(outputStream);
+
+        random = new Random(seed);
+        textPool = createTextPool();
+        idFeed = 0L;
+
+        XMLStream stream = InternalSpitterFactory.getInstance().createXMLSpitter().createStream(outputStream);
+        stream.writeStartDocument();
+
+        Map<String, String> rootAttributes = new AttributeMap();
+        if (isNamespaceUsed)
+            rootAttributes.put(XMLNodeFactory.XMLNS_WITH_SEPARATOR + FIELD_PREFIX, FIELD_NAMESPACE);
+
+        stream.writeStartElement(createNode(null, RECORDS, 1, rootAttributes));
+        for (long index = 0L; index < recordCount; index++) {
+            for (int level = 0; level < depth; level++) {
+                Map<String, String> groupAttributes = new AttributeMap(1);
+                groupAttributes.put("level", String.valueOf(level));
+
+                stream.writeStartElement(createNode(null, GROUP, level + 2, groupAttributes));
+            }
+
+            writeRecord(stream, depth + 2, recursionDepth);
+
+            for (int level = 0; level < depth; level++)
+                stream.writeEndElement();
+        }
+        stream.writeEndElement();
+
+        stream.flush();
+    }
+
+    private void writeRecord(XMLStream stream, int recordDepth, int recursionLeft) {
+        Map<String, String> recordAttributes = new AttributeMap(attributeCount + 1);
+        recordAttributes.put(ID, String.valueOf(idFeed++));
+        for (int index = 0; index < attributeCount; index++)
+            recordAttributes.put("attr" + index, nextText(1 + random.nextInt(16)));
+
+        stream.writeStartElement(createNode(null, RECORD, recordDepth, recordAttributes));
+        writeText(stream, textLength);
+
+        for (int index = 0; index < fanOut; index++) {
+            Map<String, String> fieldAttributes = new AttributeMap(1);
+            fieldAttributes.put("index", String.valueOf(index));
+
+            stream.writeStartElement(createNode(isNamespaceUsed ? FIELD_PREFIX : null, FIELD, recordDepth + 1, fieldAttributes));
+            writeText(stream, textLength);
+            stream.writeEndElement();
+        }
+
+        if (recursionLeft > 0)
+            writeRecord(stream, recordDepth + 1, recursionLeft - 1);
+
+        stream.writeEndElement();
+    }
+
+    private XMLNode createNode(String prefix, String localName, int nodeDepth, Map<String, String> attributeByName) {
+        String namespace = null;
+        if (isNamespaceUsed)
+            namespace = prefix != null ? FIELD_NAMESPACE : NAMESPACE;
+
+        XMLNode node = xmlNodeFactory.createNode(0L, namespace, prefix, localName, attributeByName);
+        node.setDepth(nodeDepth);
+
+        return node;
+    }
+
+    private void writeText(XMLStream stream, int length) {
+        while (length > 0) {
+            int chunkLength = Math.min(length, TEXT_POOL_SIZE >> 1);
+
+            stream.writeCharacters(textPool, random.nextInt(TEXT_POOL_SIZE - chunkLength + 1), chunkLength);
+            length -= chunkLength;
+        }
+    }
+
+    private String nextText(int length) {
+        return new String(textPool, random.nextInt(TEXT_POOL_SIZE - length + 1), length);
+    }
+
+    private char[] createTextPool() {
+        char[] pool = new char[TEXT_POOL_SIZE];
+        for (int index = 0; index < pool.length; index++)
+            pool[index] = index % 8 == 7 ? ' ' : (char)('a' + random.nextInt(26));
+
+        return pool;
+    }
+}
@@ -0,0 +1,81 @@
+package org.xs4j;
+
+import org.junit.Test;
+import org.xs4j.util.NotNull;
+import org.xs4j.xmlslurper.NodeListener;
+import org.xs4j.xmlslurper.XMLSlurper;
+import org.xs4j.xmlslurper.XMLSlurperFactory;
+
+import java.io.ByteArrayInputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class CorpusGeneratorTest {
+    @Test
+    public void givenSameSeedGeneratorProducesSameDocument() {
+        CorpusGenerator generator = CorpusGenerator.getInstance().withFanOut(2).withAttributeCount(3).withTextLength(10);
+
+        assertThat(generator.withSeed(7L).generate(), is(generator.withSeed(7L).generate()));
+        assertThat(generator.withSeed(7L).generate(), is(not(generator.withSeed(8L).generate())));
+    }
+
+    @Test
+    public void givenRecursiveRecordsSlurperFindsAllRecordsAtTheirDepth() throws Exception {
+        // given
+        CorpusGenerator generator = CorpusGenerator.getInstance()
+                .withRecordCount(100L)
+                .withDepth(3)
+                .withFanOut(4)
+                .withAttributeCount(5)
+                .withTextLength(100)
+                .withRecursionDepth(2);
+
+        final long[] counts = new long[3];
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createXMLSlurper();
+
+        // when
+        xmlSlurper.getNodes("**", CorpusGenerator.RECORD).findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                counts[0]++;
+                counts[1] += node.getAttributes().size();
+            }
+        });
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, "*", "*", "*", CorpusGenerator.RECORD, "*").findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                counts[2]++;
+            }
+        });
+        xmlSlurper.parse(new ByteArrayInputStream(generator.generate()));
+
+        // then
+        assertThat(counts[0], is(generator.getTotalRecordCount()));
+        assertThat(counts[1], is(generator.getTotalRecordCount() * 6));
+        assertThat(counts[2], is(100L * 5));
+    }
+
+    @Test
+    public void givenNamespacesFieldsHaveTheirOwnNamespace() throws Exception {
+        // given
+        CorpusGenerator generator = CorpusGenerator.getInstance().withRecordCount(1L).withFanOut(1).withNamespaces();
+
+        final XMLNode[] nodes = new XMLNode[1];
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createXMLSlurper();
+
+        // when
+        xmlSlurper.getNodes("**", CorpusGenerator.FIELD_PREFIX + ":" + CorpusGenerator.FIELD).find(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                nodes[0] = node;
+            }
+        });
+        xmlSlurper.parse(new ByteArrayInputStream(generator.generate()));
+
+        // then
+        assertThat(nodes[0].getNamespace(), is(CorpusGenerator.FIELD_NAMESPACE));
+        assertThat(nodes[0].getParent().getNamespace(), is(CorpusGenerator.NAMESPACE));
+    }
+}
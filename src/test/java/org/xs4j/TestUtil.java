@@ -19,6 +19,13 @@ public class TestUtil {
         return new File(testSuite.getClass().getResource(resourceName).getPath());
     }
 
+    /**
+     * @return document holding <code>recordCount</code> records, each one having two fields
+     */
+    public static byte[] generateRecords(long recordCount) {
+        return CorpusGenerator.getInstance().withRecordCount(recordCount).withFanOut(2).generate();
+    }
+
     public static XMLNode createNode(long id, String localName) {
         return xmlNodeFactory.createNode(id, localName, Collections.<String, String> emptyMap());
     }
@@ -0,0 +1,128 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DecompressingInputStreamTest {
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    @Test
+    public void givenCompressedContentStreamReadsItDecompressedAcrossBlocks() throws Exception {
+        // given
+        byte[] content = new byte[100000];
+        for (int index = 0; index < content.length; index++)
+            content[index] = (byte)(index % 251);
+
+        // when
+        InputStream inputStream = new DecompressingInputStream(new GZIPInputStream(new ByteArrayInputStream(gzip(content))), 1000, 2);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[777];
+        int length;
+        while ((length = inputStream.read(buffer, 0, buffer.length)) != -1)
+            outputStream.write(buffer, 0, length);
+        inputStream.close();
+
+        // then
+        assertArrayEquals(content, outputStream.toByteArray());
+    }
+
+    @Test
+    public void givenCorruptedContentStreamRethrowsFailureAfterPrecedingContent() throws Exception {
+        // given
+        byte[] compressed = gzip("<Records><Record/></Records>".getBytes("UTF-8"));
+        compressed[compressed.length - 5] ^= 0xFF; // corrupted length of the content
+
+        // when
+        InputStream inputStream = new DecompressingInputStream(new GZIPInputStream(new ByteArrayInputStream(compressed)), 8, 2);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            int b;
+            while ((b = inputStream.read()) != -1)
+                outputStream.write(b);
+
+            fail();
+        } catch (IOException e) {
+            // then
+            assertThat(new String(outputStream.toByteArray(), "UTF-8"), is("<Records><Record/></Records>"));
+        }
+
+        try {
+            inputStream.read();
+
+            fail();
+        } catch (IOException e) {
+            // then the failure is not mistaken for the end of the content
+        }
+    }
+
+    @Test
+    public void givenCheckedFailureOtherThanIOExceptionStreamRethrowsItWrapped() throws Exception {
+        // given
+        final Exception failure = new Exception();
+        InputStream source = new InputStream() {
+            @Override
+            public int read() {
+                return DecompressingInputStreamTest.<RuntimeException>throwUnchecked(failure);
+            }
+        };
+
+        // when
+        InputStream inputStream = new DecompressingInputStream(source, 8, 2);
+        try {
+            inputStream.read();
+
+            fail();
+        } catch (IOException e) {
+            // then
+            assertThat(e.getCause(), is((Throwable)failure));
+        }
+    }
+
+    @Test
+    public void givenClosedStreamDecompressingThreadClosesUnderlyingStream() throws Exception {
+        // given
+        final CountDownLatch closing = new CountDownLatch(1);
+        InputStream source = new ByteArrayInputStream(new byte[100000]) {
+            @Override
+            public void close() {
+                closing.countDown();
+            }
+        };
+
+        // when
+        InputStream inputStream = new DecompressingInputStream(source, 8, 2);
+        inputStream.read();
+        inputStream.close();
+
+        // then
+        assertTrue(closing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> int throwUnchecked(Throwable throwable) throws T {
+        throw (T)throwable;
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+        gzipOutputStream.write(content);
+        gzipOutputStream.close();
+
+        return outputStream.toByteArray();
+    }
+}
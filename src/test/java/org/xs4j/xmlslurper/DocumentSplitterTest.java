@@ -0,0 +1,122 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class DocumentSplitterTest {
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><!DOCTYPE Records [<!ENTITY e \"<Record>\">]>" +
+            "<Records xmlns:f=\"urn:f\" attr=\"a>b\">";
+
+    @Test
+    public void givenChunkSizeSplitterWrapsConsecutiveRootChildrenIntoDocuments() throws Exception {
+        // given
+        String document = HEADER +
+                "<Record id=\"1\"><f:Field/></Record>" +
+                "<!-- <Record id=\"comment\"> -->" +
+                "<Record id=\"2\"><![CDATA[</Records>]]></Record>" +
+                "<Record id=\"3\"/>" +
+                "<?pi </Records>?>" +
+                "<Record id=\"4\">text</Record>" +
+                "</Records>";
+        DocumentSplitter documentSplitter = new DocumentSplitter(new ByteArrayInputStream(document.getBytes("UTF-8")), 40);
+
+        // when
+        List<String> chunks = new ArrayList<String>();
+        byte[] chunk;
+        while ((chunk = documentSplitter.nextChunk()) != null)
+            chunks.add(new String(chunk, "UTF-8"));
+
+        // then
+        assertThat(chunks.size(), is(3));
+        assertThat(chunks.get(0), is(HEADER + "<Record id=\"1\"><f:Field/></Record><!-- <Record id=\"comment\"> --></Records>"));
+        assertThat(chunks.get(1), is(HEADER + "<Record id=\"2\"><![CDATA[</Records>]]></Record></Records>"));
+        assertThat(chunks.get(2), is(HEADER + "<Record id=\"3\"/><?pi </Records>?><Record id=\"4\">text</Record></Records>"));
+        assertThat(documentSplitter.isEndReached(), is(true));
+    }
+
+    @Test
+    public void givenLargeChunkSizeSplitterReturnsWholeDocument() throws Exception {
+        // given
+        String document = HEADER + "<Record id=\"1\"/><Record id=\"2\"/></Records>";
+        DocumentSplitter documentSplitter = new DocumentSplitter(new ByteArrayInputStream(document.getBytes("UTF-8")), 1024);
+
+        // when
+        byte[] chunk = documentSplitter.nextChunk();
+
+        // then
+        assertThat(new String(chunk, "UTF-8"), is(document));
+        assertThat(documentSplitter.nextChunk(), is(nullValue()));
+    }
+
+    @Test
+    public void givenEmptyRootSplitterReturnsWholeDocument() throws Exception {
+        // given
+        String document = "<?xml version=\"1.0\"?><Records/>";
+        DocumentSplitter documentSplitter = new DocumentSplitter(new ByteArrayInputStream(document.getBytes("UTF-8")), 1);
+
+        // when
+        byte[] chunk = documentSplitter.nextChunk();
+
+        // then
+        assertThat(new String(chunk, "UTF-8"), is(document));
+        assertThat(documentSplitter.nextChunk(), is(nullValue()));
+    }
+
+    @Test
+    public void givenHeaderAndOffsetSplitterResumesFromNextChunk() throws Exception {
+        // given
+        String document = HEADER +
+                "<Record id=\"1\"><f:Field/></Record>" +
+                "<Record id=\"2\">text</Record>" +
+                "<Record id=\"3\"/>" +
+                "</Records>";
+        byte[] bytes = document.getBytes("UTF-8");
+        DocumentSplitter documentSplitter = new DocumentSplitter(new ByteArrayInputStream(bytes), 1);
+        documentSplitter.nextChunk();
+        long offset = documentSplitter.getNextChunkOffset();
+
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+        inputStream.skip(offset);
+
+        // when
+        DocumentSplitter resumedDocumentSplitter = new DocumentSplitter(inputStream, 1, documentSplitter.getHeader(), offset,
+                documentSplitter.getNextChunkElementCount(), documentSplitter.getNextChunkRootChildCount());
+
+        // then
+        assertThat(document.substring((int)offset), is("<Record id=\"2\">text</Record><Record id=\"3\"/></Records>"));
+        assertThat(new String(resumedDocumentSplitter.nextChunk(), "UTF-8"), is(HEADER + "<Record id=\"2\">text</Record></Records>"));
+        assertThat(resumedDocumentSplitter.getChunkElementCount(), is(2L));
+        assertThat(resumedDocumentSplitter.getChunkRootChildCount(), is(1L));
+        assertThat(resumedDocumentSplitter.getNextChunkOffset(), is((long)document.indexOf("<Record id=\"3\"/>")));
+        assertThat(new String(resumedDocumentSplitter.nextChunk(), "UTF-8"), is(HEADER + "<Record id=\"3\"/></Records>"));
+        assertThat(resumedDocumentSplitter.getChunkElementCount(), is(3L));
+        assertThat(resumedDocumentSplitter.getChunkRootChildCount(), is(2L));
+        assertThat(resumedDocumentSplitter.nextChunk(), is(nullValue()));
+    }
+
+    @Test
+    public void givenSingleChildChunksSplitterTellsNameOfChildStartingChunk() throws Exception {
+        // given
+        String document = HEADER + " <!-- comment --><Record id=\"1\"/> <RecordSet/></Records>";
+        DocumentSplitter documentSplitter = new DocumentSplitter(new ByteArrayInputStream(document.getBytes("UTF-8")), 1);
+        byte[] qName = "Record".getBytes("UTF-8");
+        List<Boolean> isRecordByChunk = new ArrayList<Boolean>();
+
+        // when
+        byte[] chunk;
+        while ((chunk = documentSplitter.nextChunk()) != null)
+            isRecordByChunk.add(DocumentSplitter.isStartingWithStartTag(chunk, documentSplitter.getHeader().length,
+                    documentSplitter.getChunkContentLength(), qName));
+
+        // then
+        assertThat(isRecordByChunk, is(asList(false, true, false)));
+    }
+}
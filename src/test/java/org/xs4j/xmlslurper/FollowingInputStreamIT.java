@@ -0,0 +1,121 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class FollowingInputStreamIT {
+    private static final long POLL_INTERVAL_MILLIS = 10L;
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final BlockingQueue<String> ids = new LinkedBlockingQueue<String>();
+
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("followingInputStreamIT", ".log");
+    }
+
+    @Test
+    public void givenGrowingFileOfFragmentsSlurperParsesAppendedFragmentsUntilStopped() throws Exception {
+        // given
+        append("<Event id=\"1\"/>\n<Event id=\"2\">text</Event>\n");
+        FollowingInputStream inputStream = XMLSlurperFactory.getInstance().createFollowingInputStream(file, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, "Events");
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createXMLSlurper();
+
+        // when
+        Future<?> parsing = follow(xmlSlurper, inputStream, "Events");
+
+        // then
+        assertThat(ids.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS), is("1"));
+        assertThat(ids.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS), is("2"));
+
+        append("<Event id=\"3\"/>\n");
+        assertThat(ids.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS), is("3"));
+
+        append("<Event id=\"4\"/>\n");
+        inputStream.stop();
+        parsing.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertThat(ids.poll(), is("4"));
+        assertThat(ids.poll(), is(nullValue()));
+    }
+
+    @Test
+    public void givenGrowingDocumentStAXSlurperParsesAppendedNodesUntilStopped() throws Exception {
+        // given
+        append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Log><Event id=\"1\"/>");
+        FollowingInputStream inputStream = XMLSlurperFactory.getInstance().createFollowingInputStream(file, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, null);
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().enableStAXParsing().createXMLSlurper();
+
+        // when
+        Future<?> parsing = follow(xmlSlurper, inputStream, "Log");
+
+        // then
+        assertThat(ids.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS), is("1"));
+
+        append("<Event id=\"2\"/></Log>");
+        inputStream.stop();
+        parsing.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertThat(ids.poll(), is("2"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenNonPositivePollIntervalFactoryThrowsException() throws Exception {
+        XMLSlurperFactory.getInstance().createFollowingInputStream(file, 0L, TimeUnit.MILLISECONDS, null);
+    }
+
+    @After
+    public void teardown() {
+        executorService.shutdownNow();
+        file.delete();
+    }
+
+    private Future<?> follow(final XMLSlurper xmlSlurper, final FollowingInputStream inputStream, String rootQName) {
+        xmlSlurper.getNodes(rootQName, "Event").findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttribute("id"));
+            }
+        });
+
+        return executorService.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                xmlSlurper.parse(inputStream);
+
+                return null;
+            }
+        });
+    }
+
+    private void append(String content) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file, true);
+        try {
+            outputStream.write(content.getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+    }
+}
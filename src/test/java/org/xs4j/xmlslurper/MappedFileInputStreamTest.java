@@ -0,0 +1,125 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+public class MappedFileInputStreamTest {
+    private static final long WINDOW_SIZE = 7L;
+
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("mappedFileInputStreamTest", ".xml");
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void givenFileLargerThanWindowStreamReadsAllBytesAcrossWindows() throws Exception {
+        // given
+        byte[] content = "<Records><Record id=\"0\"/><Record id=\"1\"/></Records>".getBytes("UTF-8");
+        write(content);
+
+        // when
+        InputStream inputStream = new MappedFileInputStream(file, WINDOW_SIZE);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[5];
+        int length;
+        while ((length = inputStream.read(buffer, 0, buffer.length)) != -1)
+            outputStream.write(buffer, 0, length);
+        inputStream.close();
+
+        // then
+        assertArrayEquals(content, outputStream.toByteArray());
+    }
+
+    @Test
+    public void givenFileStreamReadsSingleBytesAcrossWindows() throws Exception {
+        // given
+        byte[] content = {'a', 'b', 'c', (byte)0xC5, (byte)0x82, 'd', 'e', 'f', 'g', 'h'};
+        write(content);
+
+        // when
+        InputStream inputStream = new MappedFileInputStream(file, WINDOW_SIZE);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        int b;
+        while ((b = inputStream.read()) != -1)
+            outputStream.write(b);
+        inputStream.close();
+
+        // then
+        assertArrayEquals(content, outputStream.toByteArray());
+    }
+
+    @Test
+    public void givenSkipBeyondWindowStreamContinuesFromNewPosition() throws Exception {
+        // given
+        write("0123456789abcdefghij".getBytes("UTF-8"));
+
+        // when
+        InputStream inputStream = new MappedFileInputStream(file, WINDOW_SIZE);
+        inputStream.read();
+        long skipped = inputStream.skip(10L);
+
+        // then
+        assertThat(skipped, is(10L));
+        assertThat(inputStream.available(), is(9));
+        assertThat(inputStream.read(), is((int)'b'));
+        assertThat(inputStream.skip(100L), is(8L));
+        assertThat(inputStream.read(), is(-1));
+        inputStream.close();
+    }
+
+    @Test
+    public void givenEmptyFileStreamReachesEndImmediately() throws Exception {
+        // given
+        write(new byte[0]);
+
+        // when
+        InputStream inputStream = new MappedFileInputStream(file, WINDOW_SIZE);
+
+        // then
+        assertThat(inputStream.read(), is(-1));
+        assertThat(inputStream.read(new byte[1], 0, 1), is(-1));
+        inputStream.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void givenClosedStreamReadThrowsException() throws Exception {
+        // given
+        write("<Records/>".getBytes("UTF-8"));
+        InputStream inputStream = new MappedFileInputStream(file, WINDOW_SIZE);
+
+        // when
+        inputStream.close();
+
+        // then
+        inputStream.read();
+    }
+
+    @After
+    public void teardown() {
+        file.delete();
+    }
+
+    private void write(byte[] content) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content);
+        } finally {
+            outputStream.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.Test;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.xs4j.TestUtil.createNode;
+
+public class NodeNotifierTest {
+    private final NodeNotifier notifier = XMLSlurperFactory.getNodeNotifier();
+    private final SlurpFactory slurpFactory = XMLSlurperFactory.getSlurpFactory(notifier, XMLSlurperFactory.getSlurpAlignmentFactory());
+    private final List<String> endNodes = new ArrayList<String>();
+
+    private long nodeId;
+
+    @Test
+    public void givenPathsEndingAtDifferentDepthsNotifierNotifiesEveryEndNodeListenerOnceAtItsDepth() {
+        // given
+        getNodes("Root").findAll(null, new EndNodeCollector("root"));
+        getNodes("Root", "Child").findAll(null, new EndNodeCollector("child"));
+        getNodes("Root", "Child", "Kin").find(null, new EndNodeCollector("firstKin"));
+        getNodes("**", "Descendant").findAll(null, new EndNodeCollector("descendant"));
+
+        // when
+        start("Root");
+        start("Child");
+        start("Kin");
+        start("Descendant");
+        end();
+        end();
+        boolean isFindDataEmptyOnceFirstKinEnded = notifier.isFindDataEmpty();
+        start("Kin");
+        start("Descendant");
+        end();
+        end();
+        end();
+        start("Child");
+        start("Kin");
+        end();
+        end();
+        end();
+
+        // then
+        assertThat(isFindDataEmptyOnceFirstKinEnded, is(true));
+        assertThat(endNodes, is(asList(
+                "descendant:Descendant@4",
+                "firstKin:Kin@3",
+                "descendant:Descendant@4",
+                "child:Child@2",
+                "child:Child@2",
+                "root:Root@1")));
+    }
+
+    @Test
+    public void givenFindOneDataUnregisteredMidDocumentNotifierKeepsNotifyingOtherDataAtThatDepth() {
+        // given
+        getNodes("Root", "Child").find(null, new EndNodeCollector("firstChild"));
+        getNodes("Root", "Child").findAll(null, new EndNodeCollector("child"));
+
+        // when
+        start("Root");
+        start("Child");
+        end();
+        boolean isFindDataEmptyOnceFirstChildEnded = notifier.isFindDataEmpty();
+        start("Child");
+        end();
+        end();
+
+        // then
+        assertThat(isFindDataEmptyOnceFirstChildEnded, is(true));
+        assertThat(notifier.isFindAllDataEmpty(), is(false));
+        assertThat(endNodes, is(asList(
+                "firstChild:Child@2",
+                "child:Child@2",
+                "child:Child@2")));
+    }
+
+    private SlurpNode getNodes(String... nodePath) {
+        return slurpFactory.createSlurpNode(nodePath, null);
+    }
+
+    private void start(String localName) {
+        notifier.onStartNode(createNode(nodeId++, localName));
+    }
+
+    private void end() {
+        notifier.onEndNode();
+    }
+
+    private class EndNodeCollector implements NodeListener {
+        private final String name;
+
+        private EndNodeCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onNode(@NotNull XMLNode node) {
+            endNodes.add(name + ":" + node.getLocalName() + "@" + node.getDepth());
+        }
+    }
+}
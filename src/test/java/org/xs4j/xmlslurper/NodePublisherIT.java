@@ -0,0 +1,190 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.Test;
+import org.xml.sax.SAXException;
+import org.xs4j.CorpusGenerator;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.xs4j.TestUtil.generateRecords;
+
+public class NodePublisherIT {
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    @Test
+    public void givenSubscriberRequestingOneByOnePublisherPublishesAllNodesInOrder() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createXMLSlurper();
+        RecordingSubscriber subscriber = new RecordingSubscriber(1L);
+
+        // when
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).publish(new ByteArrayInputStream(generateRecords(100L)), 4).subscribe(subscriber);
+
+        // then
+        assertTrue(subscriber.termination.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertThat(subscriber.isCompleted, is(true));
+        assertThat(subscriber.error, is(nullValue()));
+        assertThat(subscriber.ids.size(), is(100));
+        for (int index = 0; index < subscriber.ids.size(); index++)
+            assertThat(subscriber.ids.get(index), is(String.valueOf(index)));
+    }
+
+    @Test
+    public void givenSlowSubscriberPublisherPausesParsingOnceBufferIsFull() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().enableStAXParsing().createXMLSlurper();
+        final AtomicLong parsedCount = new AtomicLong();
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                parsedCount.incrementAndGet();
+            }
+        });
+        RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+
+        // when
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).publish(new ByteArrayInputStream(generateRecords(1000L)), 4).subscribe(subscriber);
+        subscriber.subscription.request(2L);
+        Thread.sleep(200L);
+
+        // then
+        assertThat(subscriber.ids.size(), is(2));
+        assertTrue(parsedCount.get() <= 2L + 4L + 1L); // delivered, buffered and awaiting a free slot
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(subscriber.termination.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertThat(subscriber.ids.size(), is(1000));
+        assertThat(parsedCount.get(), is(1000L));
+    }
+
+    @Test
+    public void givenNodeRecyclingAndSlowSubscriberPublisherPublishesNodesUnchanged() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().enableNodeRecycling().createXMLSlurper();
+        RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+
+        // when
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).publish(new ByteArrayInputStream(generateRecords(100L)), 4).subscribe(subscriber);
+        Thread.sleep(200L); // let the buffer fill up
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        // then
+        assertTrue(subscriber.termination.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertThat(subscriber.ids.size(), is(100));
+        for (int index = 0; index < subscriber.ids.size(); index++)
+            assertThat(subscriber.ids.get(index), is(String.valueOf(index)));
+    }
+
+    @Test
+    public void givenCancelledSubscriptionParsingEndsAndInputStreamIsClosed() throws Exception {
+        // given
+        final CountDownLatch closing = new CountDownLatch(1);
+        InputStream inputStream = new ByteArrayInputStream(generateRecords(1000L)) {
+            @Override
+            public void close() {
+                closing.countDown();
+            }
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+
+        // when
+        XMLSlurperFactory.getInstance().createXMLSlurper().getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).publish(inputStream, 4).subscribe(subscriber);
+        subscriber.subscription.request(1L);
+        subscriber.subscription.cancel();
+
+        // then
+        assertTrue(closing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertThat(subscriber.isCompleted, is(false));
+        assertThat(subscriber.error, is(nullValue()));
+    }
+
+    @Test
+    public void givenMalformedDocumentPublisherSignalsError() throws Exception {
+        // given
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        // when
+        XMLSlurperFactory.getInstance().createXMLSlurper().getNodes("**").publish(new ByteArrayInputStream("<Records><Record></Records>".getBytes("UTF-8")), 4).subscribe(subscriber);
+
+        // then
+        assertTrue(subscriber.termination.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertThat(subscriber.error, is(instanceOf(SAXException.class)));
+    }
+
+    @Test
+    public void givenSecondSubscriberPublisherSignalsError() throws Exception {
+        // given
+        NodePublisher publisher = XMLSlurperFactory.getInstance().createXMLSlurper().getNodes("**").publish(new ByteArrayInputStream(generateRecords(1L)), 4);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        RecordingSubscriber secondSubscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        // when
+        publisher.subscribe(subscriber);
+        publisher.subscribe(secondSubscriber);
+
+        // then
+        assertTrue(subscriber.termination.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertThat(subscriber.isCompleted, is(true));
+        assertThat(secondSubscriber.error, is(instanceOf(IllegalStateException.class)));
+    }
+
+    /**
+     * Requests <code>batchSize</code> nodes upon subscription and every node received, unless zero.
+     */
+    private static class RecordingSubscriber implements NodeSubscriber {
+        private final long batchSize;
+        private final List<String> ids = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch termination = new CountDownLatch(1);
+
+        private volatile NodeSubscription subscription;
+        private volatile boolean isCompleted;
+        private volatile Throwable error;
+
+        private RecordingSubscriber(long batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void onSubscribe(@NotNull NodeSubscription subscription) {
+            this.subscription = subscription;
+
+            if (batchSize > 0L)
+                subscription.request(batchSize);
+        }
+
+        @Override
+        public void onNext(@NotNull XMLNode node) {
+            ids.add(node.getAttribute(CorpusGenerator.ID));
+
+            if (batchSize > 0L && batchSize < Long.MAX_VALUE)
+                subscription.request(batchSize);
+        }
+
+        @Override
+        public void onError(@NotNull Throwable throwable) {
+            error = throwable;
+            termination.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            isCompleted = true;
+            termination.countDown();
+        }
+    }
+}
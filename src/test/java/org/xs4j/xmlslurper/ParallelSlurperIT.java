@@ -0,0 +1,400 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.After;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+import org.xs4j.CorpusGenerator;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ParallelSlurperIT {
+    private static final int CHUNK_SIZE = 4096;
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final byte[] document = CorpusGenerator.getInstance()
+            .withRecordCount(500L)
+            .withFanOut(2)
+            .withAttributeCount(2)
+            .withTextLength(20)
+            .withRecursionDepth(1)
+            .generate();
+
+    @Test
+    public void givenOrderedDeliveryParallelSlurperNotifiesInDocumentOrder() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, true);
+
+        // when
+        List<String> actualIds = collectRecordIds(xmlSlurper);
+
+        // then
+        assertThat(actualIds, is(collectRecordIds(XMLSlurperFactory.getInstance().createXMLSlurper())));
+    }
+
+    @Test
+    public void givenUnorderedDeliveryParallelSlurperNotifiesAboutAllNodes() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().enableNodeRecycling().createParallelXMLSlurper(executorService, CHUNK_SIZE, false);
+
+        // when
+        List<String> actualIds = collectRecordIds(xmlSlurper);
+
+        // then
+        List<String> expectedIds = collectRecordIds(XMLSlurperFactory.getInstance().createXMLSlurper());
+        Collections.sort(actualIds);
+        Collections.sort(expectedIds);
+
+        assertThat(actualIds, is(expectedIds));
+    }
+
+    @Test
+    public void givenFindListenerParallelSlurperNotifiesAboutFirstNodeAndRootOnce() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, true);
+        final List<String> nodes = new ArrayList<String>();
+
+        // when
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).attr(CorpusGenerator.ID).startsWith("4").find(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                nodes.add(node.getAttributes().get(CorpusGenerator.ID));
+            }
+        });
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                nodes.add(node.getLocalName());
+            }
+        });
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+
+        // then
+        List<String> expectedNodes = new ArrayList<String>();
+        expectedNodes.add(CorpusGenerator.RECORDS);
+        expectedNodes.add("4");
+        expectedNodes.add("4");
+        expectedNodes.add(CorpusGenerator.RECORDS);
+
+        assertThat(nodes, is(expectedNodes));
+    }
+
+    @Test
+    public void givenUnorderedDeliveryIteratorYieldsAllNodes() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, false);
+
+        // when
+        List<String> actualIds = new ArrayList<String>();
+        NodeIterator iterator = xmlSlurper.getNodes("**", CorpusGenerator.RECORD).iterate(new ByteArrayInputStream(document));
+        while (iterator.hasNext())
+            actualIds.add(iterator.next().getAttribute(CorpusGenerator.ID));
+
+        // then
+        List<String> expectedIds = new ArrayList<String>(new LinkedHashSet<String>(collectRecordIds(XMLSlurperFactory.getInstance().createXMLSlurper())));
+        Collections.sort(actualIds);
+        Collections.sort(expectedIds);
+
+        assertThat(actualIds, is(expectedIds));
+    }
+
+    @Test
+    public void givenPositionalPathParallelSlurperMatchesNodesOfSequentialSlurper() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, true);
+
+        // when
+        List<String> actualNodes = collectPositionalNodes(xmlSlurper);
+
+        // then
+        List<String> expectedNodes = collectPositionalNodes(XMLSlurperFactory.getInstance().createXMLSlurper());
+
+        assertThat(expectedNodes.size(), is(22));
+        assertThat(actualNodes, is(expectedNodes));
+    }
+
+    @Test
+    public void givenTextOfRootWithinEveryChunkParallelSlurperJoinsIt() throws Exception {
+        // given
+        byte[] document = "<Records>a<Record/>b<Record/>c<Record/>d</Records>".getBytes("UTF-8");
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, 1, false);
+
+        // when
+        List<String> actualTexts = collectRootTexts(xmlSlurper, document);
+
+        // then
+        assertThat(actualTexts, is(collectRootTexts(XMLSlurperFactory.getInstance().createXMLSlurper(), document)));
+        assertThat(actualTexts, is(Collections.singletonList("abcd")));
+    }
+
+    @Test
+    public void givenRangeOfRootChildrenParallelSlurperStopsReadingOncePassed() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, true);
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(document);
+
+        // when
+        List<String> ids = collectFirstRecordIds(xmlSlurper, inputStream);
+
+        // then
+        List<String> expectedIds = collectFirstRecordIds(XMLSlurperFactory.getInstance().createXMLSlurper(), new ByteArrayInputStream(document));
+
+        assertThat(ids.size(), is(10));
+        assertThat(ids, is(expectedIds));
+        assertThat(inputStream.available() > document.length / 2, is(true));
+    }
+
+    @Test
+    public void givenFailingListenerAndUnorderedDeliveryParallelSlurperStopsNotifyingOnceParsingIsOver() throws Exception {
+        // given
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, false);
+        final AtomicInteger nodeCount = new AtomicInteger();
+        final AtomicInteger lateNodeCount = new AtomicInteger();
+        final AtomicBoolean isParsingOver = new AtomicBoolean();
+        xmlSlurper.getNodes("**", CorpusGenerator.RECORD).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                if (isParsingOver.get())
+                    lateNodeCount.incrementAndGet();
+
+                if (nodeCount.incrementAndGet() == 1)
+                    throw new IllegalStateException();
+
+                long end = System.nanoTime() + 1000000L; // a slow listener, deaf to interruption
+                while (System.nanoTime() < end);
+            }
+        });
+
+        // when
+        try {
+            xmlSlurper.parse(new ByteArrayInputStream(document));
+            fail();
+        } catch (IllegalStateException e) {
+            isParsingOver.set(true);
+        }
+        Thread.sleep(200L);
+
+        // then
+        assertThat(lateNodeCount.get(), is(0));
+    }
+
+    @Test
+    public void givenCharactersDeclaringOtherEncodingParallelSlurperParsesThemEncodedWithUTF8() throws Exception {
+        // given
+        String characters = new String(document, "UTF-8").replaceFirst("encoding=\"[^\"]*\"", "encoding='UTF-16'");
+        final List<String> ids = new ArrayList<String>();
+        ParallelSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, true);
+
+        // when
+        xmlSlurper.getNodes("**", CorpusGenerator.RECORD).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttributes().get(CorpusGenerator.ID));
+            }
+        });
+        xmlSlurper.parse(characters.toCharArray());
+
+        // then
+        assertThat(ids, is(collectRecordIds(XMLSlurperFactory.getInstance().createXMLSlurper())));
+    }
+
+    @Test(expected = SAXException.class)
+    public void givenMalformedChunkParallelSlurperThrowsException() throws Exception {
+        // given
+        byte[] malformedDocument = new byte[document.length - 20];
+        System.arraycopy(document, 0, malformedDocument, 0, malformedDocument.length);
+
+        XMLSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, true);
+
+        // when
+        collectRecordIds(xmlSlurper, malformedDocument);
+    }
+
+    @Test
+    public void givenCheckpointParallelSlurperResumesFromIt() throws Exception {
+        // given
+        List<String> expectedIds = collectRecordIds(XMLSlurperFactory.getInstance().createXMLSlurper());
+
+        final List<String> ids = new ArrayList<String>();
+        final List<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+        final List<Integer> idCountByCheckpoint = new ArrayList<Integer>();
+        ParallelSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, true);
+        xmlSlurper.getNodes("**", CorpusGenerator.RECORD).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                if (ids.size() == 300)
+                    throw new IllegalStateException();
+
+                ids.add(node.getAttributes().get(CorpusGenerator.ID));
+            }
+        });
+
+        try {
+            xmlSlurper.parse(new ByteArrayInputStream(document), null, new CheckpointListener() {
+                @Override
+                public void onCheckpoint(@NotNull Checkpoint checkpoint) {
+                    checkpoints.add(checkpoint);
+                    idCountByCheckpoint.add(ids.size());
+                }
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // failed at the 301st record
+        }
+
+        Checkpoint lastCheckpoint = checkpoints.get(checkpoints.size() - 1);
+        int idCount = idCountByCheckpoint.get(idCountByCheckpoint.size() - 1);
+        List<String> resumedIds = new ArrayList<String>(ids.subList(0, idCount));
+
+        // when
+        resumedIds.addAll(collectRecordIds(xmlSlurper, lastCheckpoint));
+
+        // then
+        assertThat(checkpoints.size() > 1, is(true));
+        assertThat(resumedIds, is(expectedIds));
+    }
+
+    @Test
+    public void givenCheckpointOfFileParallelSlurperResumesFromIt() throws Exception {
+        // given
+        File file = File.createTempFile("parallelSlurperIT", ".xml");
+        file.deleteOnExit();
+        OutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(document);
+        outputStream.close();
+
+        final List<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+        ParallelSlurper xmlSlurper = XMLSlurperFactory.getInstance().createParallelXMLSlurper(executorService, CHUNK_SIZE, true);
+        xmlSlurper.parse(file, null, new CheckpointListener() {
+            @Override
+            public void onCheckpoint(@NotNull Checkpoint checkpoint) {
+                checkpoints.add(checkpoint);
+            }
+        });
+        Checkpoint checkpoint = checkpoints.get(checkpoints.size() / 2);
+
+        final List<String> ids = new ArrayList<String>();
+        xmlSlurper.getNodes("**", CorpusGenerator.RECORD).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttributes().get(CorpusGenerator.ID));
+            }
+        });
+
+        // when
+        xmlSlurper.parse(file, checkpoint, new CheckpointListener() {
+            @Override
+            public void onCheckpoint(@NotNull Checkpoint checkpoint) {
+            }
+        });
+
+        // then
+        List<String> expectedIds = collectRecordIds(xmlSlurper, checkpoint);
+
+        assertThat(ids, is(expectedIds));
+        assertThat(ids.isEmpty(), is(false));
+        assertThat((char)document[(int)checkpoint.getOffset()], is('<'));
+    }
+
+    @After
+    public void teardown() {
+        executorService.shutdown();
+    }
+
+    private List<String> collectRecordIds(XMLSlurper xmlSlurper) throws Exception {
+        return collectRecordIds(xmlSlurper, document);
+    }
+
+    private static List<String> collectRecordIds(XMLSlurper xmlSlurper, byte[] document) throws Exception {
+        final List<String> ids = Collections.synchronizedList(new ArrayList<String>());
+
+        xmlSlurper.getNodes("**", CorpusGenerator.RECORD).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttributes().get(CorpusGenerator.ID));
+            }
+        });
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+
+        return new ArrayList<String>(ids);
+    }
+
+    private static List<String> collectRootTexts(XMLSlurper xmlSlurper, byte[] document) throws Exception {
+        final List<String> texts = Collections.synchronizedList(new ArrayList<String>());
+
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS).findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                texts.add(node.getText());
+            }
+        });
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+
+        return new ArrayList<String>(texts);
+    }
+
+    private static List<String> collectFirstRecordIds(XMLSlurper xmlSlurper, InputStream inputStream) throws Exception {
+        final List<String> ids = new ArrayList<String>();
+
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(1L, 10L).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttribute(CorpusGenerator.ID));
+            }
+        }, null);
+        xmlSlurper.parse(inputStream);
+
+        return ids;
+    }
+
+    private List<String> collectPositionalNodes(XMLSlurper xmlSlurper) throws Exception {
+        final List<String> nodes = new ArrayList<String>();
+        NodeListener nodeListener = new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                nodes.add(node.getId() + ":" + node.getPosition() + ":" + node.getAttribute(CorpusGenerator.ID));
+            }
+        };
+
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(100L, 120L).findAll(nodeListener, null);
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(400L).find(nodeListener, null);
+        xmlSlurper.parse(new ByteArrayInputStream(document));
+
+        return nodes;
+    }
+
+    private List<String> collectRecordIds(ParallelSlurper xmlSlurper, Checkpoint checkpoint) throws Exception {
+        final List<String> ids = new ArrayList<String>();
+
+        xmlSlurper.getNodes("**", CorpusGenerator.RECORD).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttributes().get(CorpusGenerator.ID));
+            }
+        });
+        xmlSlurper.parse(new ByteArrayInputStream(document), checkpoint, new CheckpointListener() {
+            @Override
+            public void onCheckpoint(@NotNull Checkpoint checkpoint) {
+            }
+        });
+
+        return ids;
+    }
+}
@@ -40,6 +40,39 @@ public class PositionCounterTest {
         assertPosition(2, 3L);
     }
 
+    @Test
+    public void givenDepthDecreasingByManyLevelsCounterRestartsAllLevelsLeft() throws Exception {
+        assertPosition(1, 1L);
+        assertPosition(2, 1L);
+        assertPosition(3, 1L);
+        assertPosition(3, 2L);
+        assertPosition(4, 1L);
+        assertPosition(2, 2L);
+        assertPosition(3, 1L);
+        assertPosition(4, 1L);
+    }
+
+    @Test
+    public void givenRootChildPositionOffsetCounterCountsRootChildrenFromOffset() throws Exception {
+        // given
+        PositionCounter offsetCounter = new PositionCounter(3L);
+
+        // when
+        offsetCounter.getNodePosition(1);
+        long firstPosition = offsetCounter.getNodePosition(2);
+        long nestedPosition = offsetCounter.getNodePosition(3);
+        long secondPosition = offsetCounter.getNodePosition(2);
+        offsetCounter.reset();
+        offsetCounter.getNodePosition(1);
+        long positionAfterReset = offsetCounter.getNodePosition(2);
+
+        // then
+        assertThat(firstPosition, is(4L));
+        assertThat(nestedPosition, is(1L));
+        assertThat(secondPosition, is(5L));
+        assertThat(positionAfterReset, is(4L));
+    }
+
     public void assertPosition(int depth, long expectedPosition) {
         assertThat(counter.getNodePosition(depth), is(expectedPosition));
     }
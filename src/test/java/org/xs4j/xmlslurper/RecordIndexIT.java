@@ -0,0 +1,239 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xs4j.CorpusGenerator;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+public class RecordIndexIT {
+    private static final long RECORD_COUNT = 200L;
+
+    private File file;
+    private File indexFile;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("recordIndexIT", ".xml");
+        indexFile = File.createTempFile("recordIndexIT", ".idx");
+
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            CorpusGenerator.getInstance().withRecordCount(RECORD_COUNT).withFanOut(2).withRecursionDepth(1).generate(outputStream);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    @Test
+    public void givenRecordPositionIndexParsesThatRecordOnly() throws Exception {
+        // given
+        RecordIndex recordIndex = RecordIndexFactory.getInstance().createRecordIndex(file, CorpusGenerator.RECORD);
+
+        // when
+        List<XMLNode> records = parseRecord(recordIndex, 150L);
+
+        // then
+        assertThat(recordIndex.getRecordCount(), is(RECORD_COUNT));
+        assertThat(records.size(), is(1));
+        assertThat(records.get(0).getAttribute(CorpusGenerator.ID), is(collectRecordIds().get(149)));
+        assertThat(records.get(0).getParent().getQName(), is(CorpusGenerator.RECORDS));
+    }
+
+    @Test
+    public void givenIndexedAttributeIndexFindsRecordsByValue() throws Exception {
+        // given
+        RecordIndex recordIndex = RecordIndexFactory.getInstance().createRecordIndex(file, CorpusGenerator.RECORD, CorpusGenerator.ID);
+        String id = collectRecordIds().get(41);
+
+        // when
+        long[] recordPositions = recordIndex.getRecordPositions(CorpusGenerator.ID, id);
+
+        // then
+        assertArrayEquals(new long[] {42L}, recordPositions);
+        assertThat(parseRecord(recordIndex, 42L).get(0).getAttribute(CorpusGenerator.ID), is(id));
+        assertThat(recordIndex.getRecordPositions(CorpusGenerator.ID, "missing").length, is(0));
+    }
+
+    @Test
+    public void givenWrittenIndexFactoryReadsItBack() throws Exception {
+        // given
+        RecordIndexFactory.getInstance().createRecordIndex(file, CorpusGenerator.RECORD, CorpusGenerator.ID).write(indexFile);
+        String id = collectRecordIds().get(199);
+
+        // when
+        RecordIndex recordIndex = RecordIndexFactory.getInstance().readRecordIndex(file, indexFile);
+
+        // then
+        assertThat(recordIndex.getRecordCount(), is(RECORD_COUNT));
+        assertArrayEquals(new long[] {200L}, recordIndex.getRecordPositions(CorpusGenerator.ID, id));
+        assertThat(parseRecord(recordIndex, 200L).get(0).getAttribute(CorpusGenerator.ID), is(id));
+    }
+
+    @Test
+    public void givenRecordPositionIndexNumbersNodesAsWholeDocumentParsing() throws Exception {
+        // given
+        RecordIndex recordIndex = RecordIndexFactory.getInstance().createRecordIndex(file, CorpusGenerator.RECORD);
+        final List<XMLNode> expectedRecords = new ArrayList<XMLNode>();
+        final Map<Long, XMLNode> expectedChildById = new HashMap<Long, XMLNode>();
+        XMLSourceSlurper xmlSlurper = XMLSlurperFactory.getInstance().createXMLSourceSlurper();
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(120L).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                expectedRecords.add(node);
+            }
+        }, null);
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD, "*").findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                expectedChildById.put(node.getId(), node);
+            }
+        }, null);
+        xmlSlurper.parse(file);
+        final List<XMLNode> children = new ArrayList<XMLNode>();
+
+        // when
+        List<XMLNode> records = parseRecord(recordIndex, 120L, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                children.add(node);
+            }
+        });
+
+        // then
+        assertThat(records.size(), is(1));
+        assertThat(records.get(0).getId(), is(expectedRecords.get(0).getId()));
+        assertThat(records.get(0).getPosition(), is(120L));
+        assertThat(children.isEmpty(), is(false));
+        for (XMLNode child : children) {
+            XMLNode expectedChild = expectedChildById.get(child.getId());
+            assertThat(child.getQName(), is(expectedChild.getQName()));
+            assertThat(child.getPosition(), is(expectedChild.getPosition()));
+            assertThat(expectedChild.getParent().getId(), is(records.get(0).getId()));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void givenModifiedFileFactoryRejectsIndex() throws Exception {
+        // given
+        RecordIndexFactory.getInstance().createRecordIndex(file, CorpusGenerator.RECORD).write(indexFile);
+
+        // when
+        file.setLastModified(file.lastModified() - 10000L);
+
+        // then
+        RecordIndexFactory.getInstance().readRecordIndex(file, indexFile);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void givenPositionBeyondRecordCountIndexThrowsException() throws Exception {
+        RecordIndex recordIndex = RecordIndexFactory.getInstance().createRecordIndex(file, CorpusGenerator.RECORD);
+
+        parseRecord(recordIndex, RECORD_COUNT + 1L);
+    }
+
+    @Test
+    public void givenOtherChildrenOfRootIndexCountsRecordPositionsAsSlurpNodeGet() throws Exception {
+        // given
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Records><Record id=\"a\"/><Other/>" +
+                    "<Record id=\"b\"/><Other/><Record id=\"c\"/></Records>").getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+        RecordIndex recordIndex = RecordIndexFactory.getInstance().createRecordIndex(file, CorpusGenerator.RECORD, CorpusGenerator.ID);
+
+        final List<String> ids = new ArrayList<String>();
+        XMLSourceSlurper xmlSlurper = XMLSlurperFactory.getInstance().createXMLSourceSlurper();
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(3L).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttribute(CorpusGenerator.ID));
+            }
+        }, null);
+        xmlSlurper.parse(file);
+
+        // when
+        List<XMLNode> records = parseRecord(recordIndex, 3L);
+
+        // then
+        assertThat(recordIndex.getRecordCount(), is(3L));
+        assertThat(ids.size(), is(1));
+        assertThat(records.get(0).getAttribute(CorpusGenerator.ID), is(ids.get(0)));
+        assertArrayEquals(new long[] {5L}, recordIndex.getRecordPositions(CorpusGenerator.ID, "c"));
+        assertThat(parseRecord(recordIndex, 5L).get(0).getAttribute(CorpusGenerator.ID), is("c"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void givenPositionOfOtherChildOfRootIndexThrowsException() throws Exception {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write("<Records><Record id=\"a\"/><Other/><Record id=\"b\"/></Records>".getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+        RecordIndex recordIndex = RecordIndexFactory.getInstance().createRecordIndex(file, CorpusGenerator.RECORD);
+
+        parseRecord(recordIndex, 2L);
+    }
+
+    @After
+    public void teardown() {
+        file.delete();
+        indexFile.delete();
+    }
+
+    private List<String> collectRecordIds() throws Exception {
+        final List<String> ids = new ArrayList<String>();
+
+        XMLSourceSlurper xmlSlurper = XMLSlurperFactory.getInstance().createXMLSourceSlurper();
+        xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttribute(CorpusGenerator.ID));
+            }
+        }, null);
+        xmlSlurper.parse(file);
+
+        return ids;
+    }
+
+    private static List<XMLNode> parseRecord(RecordIndex recordIndex, long recordPosition) throws Exception {
+        return parseRecord(recordIndex, recordPosition, null);
+    }
+
+    private static List<XMLNode> parseRecord(RecordIndex recordIndex, long recordPosition, final NodeListener childListener) throws Exception {
+        final List<XMLNode> records = new ArrayList<XMLNode>();
+
+        recordIndex.parseRecord(XMLSlurperFactory.getInstance(), new SlurpTemplate<Long>() {
+            @Override
+            public void apply(@NotNull XMLSlurper xmlSlurper, @NotNull Long recordPosition) {
+                xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(recordPosition).findAll(null, new NodeListener() {
+                    @Override
+                    public void onNode(@NotNull XMLNode node) {
+                        records.add(node);
+                    }
+                });
+                if (childListener != null)
+                    xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD, "*").findAll(childListener, null);
+            }
+        }, recordPosition);
+
+        return records;
+    }
+}
@@ -0,0 +1,79 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.Test;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.validation.Schema;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.xs4j.TestUtil.getResourceAsFile;
+import static org.xs4j.xmlslurper.XMLSlurperFactory.getSaxParserFactory;
+import static org.xs4j.xmlslurper.XMLSlurperFactory.getSchemaFactory;
+
+public class SAXParserPoolTest {
+    private final SAXParserPool saxParserPool = new SAXParserPool(getSaxParserFactory(false));
+
+    @Test
+    public void givenReturnedParserPoolReusesItOnTheSameThread() throws Exception {
+        // given
+        SAXParser parser = saxParserPool.borrowParser(null);
+
+        // when
+        saxParserPool.returnParser(null, parser);
+
+        // then
+        assertThat(saxParserPool.borrowParser(null), is(sameInstance(parser)));
+    }
+
+    @Test
+    public void givenBorrowedParserPoolCreatesAnotherOne() throws Exception {
+        SAXParser parser = saxParserPool.borrowParser(null);
+
+        assertThat(saxParserPool.borrowParser(null), is(not(sameInstance(parser))));
+    }
+
+    @Test
+    public void givenSchemaPoolReturnsParserValidatingAgainstIt() throws Exception {
+        // given
+        Schema schema = getSchemaFactory().newSchema(getResourceAsFile(this, "borderTestCaseSchema.xsd"));
+        SAXParser parser = saxParserPool.borrowParser(null);
+        saxParserPool.returnParser(null, parser);
+
+        // when
+        SAXParser validatingParser = saxParserPool.borrowParser(schema);
+
+        // then
+        assertThat(validatingParser, is(not(sameInstance(parser))));
+        assertThat(validatingParser.getSchema(), is(sameInstance(schema)));
+        assertThat(saxParserPool.borrowParser(null), is(sameInstance(parser)));
+    }
+
+    @Test
+    public void givenReturnedParserPoolDoesNotReuseItOnAnotherThread() throws Exception {
+        // given
+        SAXParser parser = saxParserPool.borrowParser(null);
+        saxParserPool.returnParser(null, parser);
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            // when
+            SAXParser otherParser = executorService.submit(new Callable<SAXParser>() {
+                @Override
+                public SAXParser call() throws Exception {
+                    return saxParserPool.borrowParser(null);
+                }
+            }).get();
+
+            // then
+            assertThat(otherParser, is(not(sameInstance(parser))));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
@@ -2,12 +2,23 @@ package org.xs4j.xmlslurper;
 
 import org.junit.After;
 import org.junit.Test;
+import org.xs4j.CorpusGenerator;
 import org.xs4j.XMLNode;
 import org.xs4j.XMLNodeFactory;
+import org.xs4j.util.NotNull;
 import org.xs4j.xmlslurper.*;
 
 import javax.xml.stream.XMLStreamException;
-
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 import static org.xs4j.TestUtil.createNode;
 import static org.xs4j.TestUtil.getResource;
@@ -80,6 +91,69 @@ public class SAXSlurperIT {
         verify(nodeNotifier).onStartNode(object);
     }
 
+    @Test
+    public void givenFindAllListenerOnChildrenOfRootSlurperShouldSkipTheirDescendants() throws Exception {
+        // given
+        NodeNotifier nodeNotifier = createSlurperWithSpyNodeNotifier();
+        NodeListener listener = mock(NodeListener.class);
+
+        // when
+        slurper.getNodes("Transport", "Car").findAll(listener);
+        slurper.parse(getResource(this, "siblingsTestCase.xml"));
+
+        // then
+        XMLNode car = createNode(1L, "Car");
+        XMLNode plane = createNode(5L, "Plane");
+
+        verify(listener, times(2)).onNode(car);
+        verifyNoMoreInteractions(listener);
+
+        verify(nodeNotifier, times(3)).onStartNode(any(XMLNode.class));
+        verify(nodeNotifier).onStartNode(car);
+        verify(nodeNotifier).onStartNode(plane);
+        verify(nodeNotifier, times(3)).onEndNode();
+    }
+
+    @Test
+    public void givenSlurpersRunningConcurrentlyEachOneAssignsIdsInDocumentOrder() throws Exception {
+        // given
+        final byte[] document = CorpusGenerator.getInstance().withRecordCount(500L).withFanOut(2).withRecursionDepth(1).generate();
+
+        Callable<List<Long>> parsing = new Callable<List<Long>>() {
+            @Override
+            public List<Long> call() throws Exception {
+                final List<Long> ids = new ArrayList<Long>();
+
+                XMLSlurper slurper = XMLSlurperFactory.getInstance().createXMLSlurper();
+                slurper.getNodes("**", CorpusGenerator.RECORD).findAll(new NodeListener() {
+                    @Override
+                    public void onNode(@NotNull XMLNode node) {
+                        ids.add(node.getId());
+                    }
+                });
+                slurper.parse(new ByteArrayInputStream(document));
+
+                return ids;
+            }
+        };
+
+        // when
+        List<Long> expectedIds = parsing.call();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> actualIds = new ArrayList<Future<List<Long>>>();
+        try {
+            for (int index = 0; index < 32; index++)
+                actualIds.add(executorService.submit(parsing));
+
+            // then
+            for (Future<List<Long>> ids : actualIds)
+                assertThat(ids.get(), is(expectedIds));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     @After
     public void teardown() {
         slurper = null;
@@ -90,11 +164,11 @@ public class SAXSlurperIT {
 
         XMLNodeFactory xmlNodeFactory = XMLNodeFactory.getInstance();
         slurper = new SAXSlurper(
-                getSaxParserFactory(true),
-                getSchemaFactory(),
+                getSAXParserPool(true),
+                getSchemaCache(),
                 getSlurpFactory(nodeNotifier, getSlurpAlignmentFactory()),
                 nodeNotifier,
-                getSAXNamespaceSensitiveElementParser(true, xmlNodeFactory),
+                getSAXNamespaceSensitiveElementParser(true, xmlNodeFactory, getSymbolTable(), nodeNotifier),
                 getEntityResolver(false));
 
         return nodeNotifier;
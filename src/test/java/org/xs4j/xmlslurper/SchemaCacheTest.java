@@ -0,0 +1,60 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.Test;
+
+import javax.xml.validation.Schema;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.xs4j.TestUtil.getResourceAsFile;
+import static org.xs4j.xmlslurper.XMLSlurperFactory.getSchemaFactory;
+
+public class SchemaCacheTest {
+    private final SchemaCache schemaCache = new SchemaCache(getSchemaFactory());
+
+    @Test
+    public void givenSameSchemaFileCacheReturnsSameSchema() throws Exception {
+        File schemaFile = getResourceAsFile(this, "borderTestCaseSchema.xsd");
+
+        Schema schema = schemaCache.getSchema(schemaFile);
+
+        assertThat(schemaCache.getSchema(new File(schemaFile.getPath())), is(sameInstance(schema)));
+    }
+
+    @Test
+    public void givenModifiedSchemaFileCacheCompilesItAgain() throws Exception {
+        // given
+        File schemaFile = File.createTempFile("schemaCacheTest", ".xsd");
+        schemaFile.deleteOnExit();
+        copy(getResourceAsFile(this, "borderTestCaseSchema.xsd"), schemaFile);
+        schemaFile.setLastModified(1000000L);
+
+        // when
+        Schema schema = schemaCache.getSchema(schemaFile);
+        schemaFile.setLastModified(2000000L);
+
+        // then
+        assertThat(schemaCache.getSchema(schemaFile), is(not(sameInstance(schema))));
+    }
+
+    private static void copy(File source, File target) throws Exception {
+        InputStream inputStream = new FileInputStream(source);
+        OutputStream outputStream = new FileOutputStream(target);
+        try {
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1)
+                outputStream.write(buffer, 0, length);
+        } finally {
+            inputStream.close();
+            outputStream.close();
+        }
+    }
+}
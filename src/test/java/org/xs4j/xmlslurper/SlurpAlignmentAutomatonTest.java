@@ -0,0 +1,154 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@SuppressWarnings("Duplicates")
+public class SlurpAlignmentAutomatonTest {
+    private final SlurpAlignmentAutomaton automaton = new SlurpAlignmentAutomaton();
+
+    @Test
+    public void givenChildOfRootAutomatonAlignsOnlyWithChildAt2ndLevel() {
+        int pathId = automaton.addPath(asList("Root", "Child"));
+
+        assertAligned(path("Root"));
+        assertAligned(path("Root", "Child"), pathId);
+        assertAligned(path("Root", "Sibling"));
+        assertAligned(path("Root", "Child", "Child"));
+        assertAligned(path("OtherRoot", "Child"));
+    }
+
+    @Test
+    public void givenEmptyPathAutomatonAlignsWithAnyElement() {
+        int pathId = automaton.addPath(asList(new String[0]));
+
+        assertAligned(path("Root"), pathId);
+        assertAligned(path("Root", "Child"), pathId);
+        assertAligned(path("Root", "Child", "Kin"), pathId);
+    }
+
+    @Test
+    public void givenChildrenOfChildBeingDescendantAutomatonAlignsWithAnyElementBelowChildExceptRoot() {
+        int pathId = automaton.addPath(asList("**", "Child", "*"));
+
+        assertAligned(path("Child", "Offspring"));
+        assertAligned(path("Child", "Offspring", "Child"));
+        assertAligned(path("Child", "Offspring", "Child", "Kin"), pathId);
+        assertAligned(path("Root", "Sibling", "Child", "Offspring"), pathId);
+        assertAligned(path("Root", "Sibling", "Child", "Offspring", "Descendant"));
+        assertAligned(path("Root", "Sibling", "Child", "Offspring", "Child", "Descendant"), pathId);
+    }
+
+    @Test
+    public void givenDescendantsOfChildBeingDescendantAutomatonAlignsWithElementsHavingChildAtMostLevelBeforeLast() {
+        int pathId = automaton.addPath(asList("**", "Child", "**"));
+
+        assertAligned(path("Root", "Child"));
+        assertAligned(path("Root", "Child", "Kin"), pathId);
+        assertAligned(path("Root", "Kin", "Child", "Offspring"), pathId);
+        assertAligned(path("Child", "Kin", "Descendant", "Offspring"));
+        assertAligned(path("Child", "Child", "Kin"), pathId);
+        assertAligned(path("Child", "Child", "Child", "Child"), pathId);
+    }
+
+    @Test
+    public void givenChildrenOfDescendantsOfDescendantsAutomatonAlignsWithElementsFromThe3rdLevel() {
+        int pathId = automaton.addPath(asList("**", "**", "*"));
+
+        assertAligned(path("Root", "Child"));
+        assertAligned(path("OtherRoot", "Kin", "Descendant"), pathId);
+        assertAligned(path("OtherRoot", "Kin", "Descendant", "Offspring"), pathId);
+    }
+
+    @Test
+    public void givenEqualPathsAutomatonSharesTheirId() {
+        int pathId = automaton.addPath(asList("Root", "*"));
+
+        assertThat(automaton.addPath(asList("Root", "*")), is(pathId));
+    }
+
+    @Test
+    public void givenManyPathsAutomatonReturnsAllAlignedPathIdsInAscendingOrder() {
+        int childPathId = automaton.addPath(asList("Root", "Child"));
+        int siblingPathId = automaton.addPath(asList("Root", "*"));
+        automaton.addPath(asList("Root", "Kin"));
+        int descendantPathId = automaton.addPath(asList("**"));
+
+        assertAligned(path("Root"), descendantPathId);
+        assertAligned(path("Root", "Child"), childPathId, siblingPathId, descendantPathId);
+    }
+
+    @Test
+    public void givenPathAddedWhileParsingAutomatonAlignsWithDescendantsOfCurrentElement() {
+        automaton.addPath(asList("Root"));
+        automaton.onStartNode("Root");
+        automaton.onStartNode("Child");
+
+        int pathId = automaton.addPath(asList("Root", "Child", "Kin"));
+
+        automaton.onStartNode("Kin");
+        assertThat(automaton.getAlignedPathIds(), is(new int[] {pathId}));
+    }
+
+    @Test
+    public void givenChildOfRootAutomatonReportsNoPossibleAlignmentBelowChildAndSiblings() {
+        automaton.addPath(asList("Root", "Child"));
+
+        automaton.onStartNode("Root");
+        assertThat(automaton.isDescendantAlignmentPossible(), is(true));
+
+        automaton.onStartNode("Child");
+        assertThat(automaton.isDescendantAlignmentPossible(), is(false));
+        automaton.onEndNode();
+
+        automaton.onStartNode("Sibling");
+        assertThat(automaton.isDescendantAlignmentPossible(), is(false));
+    }
+
+    @Test
+    public void givenDescendantsPathAutomatonReportsPossibleAlignmentAtAnyDepth() {
+        automaton.addPath(asList("Root", "**"));
+
+        automaton.onStartNode("Root");
+        automaton.onStartNode("Child");
+        automaton.onStartNode("Kin");
+        assertThat(automaton.isDescendantAlignmentPossible(), is(true));
+    }
+
+    @Test
+    public void givenRemovedPathAutomatonNeitherAlignsNorReportsPossibleAlignment() {
+        int pathId = automaton.addPath(asList("Root", "Child"));
+        int otherPathId = automaton.addPath(asList("Root", "Kin"));
+
+        automaton.onStartNode("Root");
+        automaton.removePath(pathId);
+        automaton.removePath(otherPathId);
+        assertThat(automaton.isDescendantAlignmentPossible(), is(false));
+
+        automaton.onStartNode("Child");
+        assertThat(automaton.getAlignedPathIds(), is(new int[0]));
+    }
+
+    @After
+    public void teardown() {
+        automaton.reset();
+    }
+
+    private void assertAligned(String[] nodes, int... expectedPathIds) {
+        for (String node : nodes)
+            automaton.onStartNode(node);
+
+        assertThat(automaton.getAlignedPathIds(), is(expectedPathIds));
+
+        for (String node : nodes)
+            automaton.onEndNode();
+    }
+
+    private static String[] path(String... nodes) {
+        return nodes;
+    }
+}
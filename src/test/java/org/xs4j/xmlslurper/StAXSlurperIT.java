@@ -0,0 +1,255 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.After;
+import org.junit.Test;
+import org.xs4j.CorpusGenerator;
+import org.xs4j.XMLNode;
+import org.xs4j.XMLNodeFactory;
+import org.xs4j.util.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+import static org.xs4j.TestUtil.createNode;
+import static org.xs4j.TestUtil.getResource;
+import static org.xs4j.TestUtil.getResourceAsFile;
+import static org.xs4j.xmlslurper.XMLSlurperFactory.*;
+import static org.xs4j.TestUtil.generateRecords;
+
+public class StAXSlurperIT {
+    private XMLSourceSlurper slurper;
+
+    @Test
+    public void givenFindListenerOnRootNodeSlurperShouldParseStartAndEndElementOnRootNode() throws Exception {
+        // given
+        slurper = XMLSlurperFactory.getInstance().enableStAXParsing().createXMLSourceSlurper();
+        NodeListener listener = mock(NodeListener.class);
+
+        // when
+        slurper.getNodes().find(listener);
+        slurper.parse(getResource(this, "simpleTestCase.xml"));
+
+        // then
+        XMLNode root = createNode(0L, "ObjectTree");
+
+        verify(listener, times(2)).onNode(root);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void givenFindListenerOnRootStartNodeSlurperShouldParseRootStartElementAndExit() throws Exception {
+        // given
+        NodeNotifier nodeNotifier = createSlurperWithSpyNodeNotifier();
+        NodeListener listener = mock(NodeListener.class);
+
+        // when
+        slurper.getNodes().find(listener, null);
+        slurper.parse(getResource(this, "simpleTestCase.xml"));
+
+        // then
+        XMLNode root = createNode(0L, "ObjectTree");
+
+        verify(listener).onNode(root);
+        verifyNoMoreInteractions(listener);
+
+        verify(nodeNotifier, never()).peekLastDescendant();
+        verify(nodeNotifier, never()).onEndNode();
+        verify(nodeNotifier).onStartNode(root);
+    }
+
+    @Test
+    public void givenFindListenerOnChildEndNodeSlurperShouldParseTillChildEndElementInclusiveAndExit() throws Exception {
+        // given
+        NodeNotifier nodeNotifier = createSlurperWithSpyNodeNotifier();
+        NodeListener listener = mock(NodeListener.class);
+
+        // when
+        slurper.getNodes().node("ObjectTree").node("Object").find(null, listener);
+        slurper.parse(getResource(this, "simpleTestCase.xml"));
+
+        // then
+        XMLNode root = createNode(0L, "ObjectTree");
+        XMLNode object = createNode(1L, "Object");
+
+        verify(listener).onNode(object);
+        verifyNoMoreInteractions(listener);
+
+        verify(nodeNotifier).onEndNode();
+        verify(nodeNotifier).onStartNode(root);
+        verify(nodeNotifier).onStartNode(object);
+    }
+
+    @Test
+    public void givenNamespaceAwareSlurpersBothReturnSameNodes() throws Exception {
+        assertSameNodesAsSAXSlurper(XMLSlurperFactory.getInstance(), "namespaceTestCase.xml");
+        assertSameNodesAsSAXSlurper(XMLSlurperFactory.getInstance(), "siblingsTestCase.xml");
+        assertSameNodesAsSAXSlurper(XMLSlurperFactory.getInstance(), "borderTestCase.xml");
+    }
+
+    @Test
+    public void givenNamespaceBlindSlurpersBothReturnSameNodes() throws Exception {
+        assertSameNodesAsSAXSlurper(XMLSlurperFactory.getInstance().disableNamespaceAwareness(), "namespaceTestCase.xml");
+        assertSameNodesAsSAXSlurper(XMLSlurperFactory.getInstance().disableNamespaceAwareness(), "siblingsTestCase.xml");
+    }
+
+    @Test
+    public void givenDoctypeAndNoDTDWithDTDValidationDisabledParseCompletes() throws Exception {
+        XMLSlurperFactory.getInstance().enableStAXParsing().disableDTDValidation().createXMLSlurper().parse(getResource(this, "noDTDTestCase.xml"));
+    }
+
+    @Test
+    public void givenSchemaSlurperParsesSameNodesAsSAXSlurper() throws Exception {
+        // given
+        XMLSlurper saxSlurper = XMLSlurperFactory.getInstance().createXMLSlurper();
+        XMLSlurper staxSlurper = XMLSlurperFactory.getInstance().enableStAXParsing().createXMLSlurper();
+
+        // when
+        List<String> expectedNodes = collectNodes(saxSlurper, "borderTestCase.xml", "borderTestCaseSchema.xsd");
+        List<String> actualNodes = collectNodes(staxSlurper, "borderTestCase.xml", "borderTestCaseSchema.xsd");
+
+        // then
+        assertThat(actualNodes.isEmpty(), is(false));
+        assertThat(actualNodes, is(expectedNodes));
+    }
+
+    @Test
+    public void givenIteratedSlurpNodeIteratorYieldsMatchingNodesOneEventAtATime() throws Exception {
+        // given
+        slurper = XMLSlurperFactory.getInstance().enableStAXParsing().createXMLSourceSlurper();
+        final List<String> parsedIds = new ArrayList<String>();
+        slurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                parsedIds.add(node.getAttribute(CorpusGenerator.ID));
+            }
+        });
+
+        // when
+        NodeIterator iterator = slurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).iterate(new ByteArrayInputStream(generateRecords(3L)));
+
+        // then
+        assertThat(iterator.next().getAttribute(CorpusGenerator.ID), is("0"));
+        assertThat(parsedIds.size(), is(2)); // start-tag and end-tag of the first record only
+
+        assertThat(iterator.next().getAttribute(CorpusGenerator.ID), is("1"));
+        assertThat(iterator.next().getAttribute(CorpusGenerator.ID), is("2"));
+        assertThat(iterator.hasNext(), is(false));
+        assertThat(parsedIds.size(), is(6));
+    }
+
+    @Test
+    public void givenClosedIteratorParsingEndsAndInputStreamIsClosed() throws Exception {
+        // given
+        final boolean[] isClosed = new boolean[1];
+        InputStream inputStream = new ByteArrayInputStream(generateRecords(100L)) {
+            @Override
+            public void close() {
+                isClosed[0] = true;
+            }
+        };
+        slurper = XMLSlurperFactory.getInstance().enableStAXParsing().createXMLSourceSlurper();
+        NodeIterator iterator = slurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).iterate(inputStream);
+
+        // when
+        iterator.next();
+        iterator.close();
+
+        // then
+        assertThat(isClosed[0], is(true));
+        assertThat(iterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void givenCharacterSequenceSlurperParsesItInPlace() throws Exception {
+        // given
+        slurper = XMLSlurperFactory.getInstance().enableStAXParsing().createXMLSourceSlurper();
+        NodeListener listener = mock(NodeListener.class);
+
+        // when
+        slurper.getNodes("ObjectTree", "Object").findAll(null, listener);
+        slurper.parse(new StringBuilder("<ObjectTree><Object/></ObjectTree>"));
+
+        // then
+        verify(listener).onNode(createNode(1L, "Object"));
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void givenByteBufferSlurperParsesRemainingBytes() throws Exception {
+        // given
+        slurper = XMLSlurperFactory.getInstance().enableStAXParsing().createXMLSourceSlurper();
+        NodeListener listener = mock(NodeListener.class);
+        ByteBuffer byteBuffer = ByteBuffer.wrap("--<ObjectTree><Object/></ObjectTree>".getBytes("UTF-8"));
+        byteBuffer.position(2);
+
+        // when
+        slurper.getNodes("ObjectTree", "Object").findAll(null, listener);
+        slurper.parse(byteBuffer);
+
+        // then
+        verify(listener).onNode(createNode(1L, "Object"));
+        verifyNoMoreInteractions(listener);
+        assertThat(byteBuffer.position(), is(2));
+    }
+
+    @After
+    public void teardown() {
+        slurper = null;
+    }
+
+    private void assertSameNodesAsSAXSlurper(XMLSlurperFactory factory, String resourceName) throws Exception {
+        List<String> expectedNodes = collectNodes(factory.createXMLSlurper(), resourceName);
+        List<String> actualNodes = collectNodes(factory.enableStAXParsing().createXMLSlurper(), resourceName);
+
+        assertThat(actualNodes, is(expectedNodes));
+    }
+
+    private List<String> collectNodes(XMLSlurper slurper, String resourceName) throws Exception {
+        return collectNodes(slurper, resourceName, null);
+    }
+
+    private List<String> collectNodes(XMLSlurper slurper, String resourceName, String schemaResourceName) throws Exception {
+        final List<String> nodes = new ArrayList<String>();
+
+        slurper.getNodes().findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                nodes.add(node.getId() + " " + node.getNamespace() + " " + node.getQName() + " " + node.getDepth() + " "
+                        + node.getPosition() + " " + node.getAttributes() + " " + node.getText());
+            }
+        });
+        if (schemaResourceName != null)
+            slurper.parse(getResource(this, resourceName), getResourceAsFile(this, schemaResourceName));
+        else
+            slurper.parse(getResource(this, resourceName));
+
+        return nodes;
+    }
+
+    private NodeNotifier createSlurperWithSpyNodeNotifier() {
+        NodeNotifier nodeNotifier = spy(getNodeNotifier());
+
+        XMLNodeFactory xmlNodeFactory = XMLNodeFactory.getInstance();
+        SlurpFactory slurpFactory = getSlurpFactory(nodeNotifier, getSlurpAlignmentFactory());
+        slurper = new StAXSlurper(
+                getXMLInputFactory(false),
+                slurpFactory,
+                nodeNotifier,
+                getStAXNamespaceSensitiveElementParser(true, xmlNodeFactory, getSymbolTable(), nodeNotifier),
+                new SAXSlurper(
+                        getSAXParserPool(true),
+                        getSchemaCache(),
+                        slurpFactory,
+                        nodeNotifier,
+                        getSAXNamespaceSensitiveElementParser(true, xmlNodeFactory, getSymbolTable(), nodeNotifier),
+                        getEntityResolver(false)));
+
+        return nodeNotifier;
+    }
+}
@@ -0,0 +1,54 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class SymbolTableTest {
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    @Test
+    public void givenEqualNamesTableReturnsSameInstance() {
+        String name = symbolTable.getName(new String("Object"));
+
+        assertThat(symbolTable.getName(new String("Object")), is(sameInstance(name)));
+    }
+
+    @Test
+    public void givenPrefixedQNameTableReturnsItsPrefix() {
+        assertThat(symbolTable.getPrefix("other:Object"), is("other"));
+        assertThat(symbolTable.getPrefix(new String("other:Object")), is(sameInstance(symbolTable.getName("other"))));
+    }
+
+    @Test
+    public void givenUnprefixedQNameTableReturnsNoPrefix() {
+        assertThat(symbolTable.getPrefix("Object"), is(nullValue()));
+        assertThat(symbolTable.getPrefix("Object"), is(nullValue()));
+    }
+
+    @Test
+    public void givenPrefixAndLocalNameTableReturnsSameQNameInstance() {
+        String qName = symbolTable.getQName("other", "Object");
+
+        assertThat(qName, is("other:Object"));
+        assertThat(symbolTable.getQName(new String("other"), new String("Object")), is(sameInstance(qName)));
+        assertThat(symbolTable.getName(new String("other:Object")), is(sameInstance(qName)));
+    }
+
+    @Test
+    public void givenNoPrefixTableReturnsLocalNameAsQName() {
+        assertThat(symbolTable.getQName(null, "Object"), is(sameInstance(symbolTable.getName("Object"))));
+        assertThat(symbolTable.getQName("", "Object"), is(sameInstance(symbolTable.getName("Object"))));
+    }
+
+    @Test
+    public void givenPrefixTableReturnsSameXmlnsQNameInstance() {
+        String xmlnsQName = symbolTable.getXmlnsQName("other");
+
+        assertThat(xmlnsQName, is("xmlns:other"));
+        assertThat(symbolTable.getXmlnsQName(new String("other")), is(sameInstance(xmlnsQName)));
+    }
+}
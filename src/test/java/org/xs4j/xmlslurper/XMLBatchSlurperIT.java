@@ -0,0 +1,141 @@
+package org.xs4j.xmlslurper;
+
+import org.junit.After;
+import org.junit.Test;
+import org.xs4j.CorpusGenerator;
+import org.xs4j.XMLNode;
+import org.xs4j.util.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.xs4j.TestUtil.getResourceAsFile;
+import static org.xs4j.TestUtil.generateRecords;
+
+public class XMLBatchSlurperIT {
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+    @Test
+    public void givenManyDocumentsBatchSlurperParsesEachOneWithItsOwnListeners() throws Exception {
+        // given
+        List<ByteArrayInputSupplier> inputs = new ArrayList<ByteArrayInputSupplier>();
+        for (int index = 1; index <= 32; index++)
+            inputs.add(new ByteArrayInputSupplier(generateRecords(index)));
+
+        final Map<ByteArrayInputSupplier, AtomicLong> countByInput = new ConcurrentHashMap<ByteArrayInputSupplier, AtomicLong>();
+
+        // when
+        XMLSlurperFactory.getInstance().createXMLBatchSlurper(executorService).parse(inputs, new SlurpTemplate<ByteArrayInputSupplier>() {
+            @Override
+            public void apply(@NotNull XMLSlurper xmlSlurper, @NotNull ByteArrayInputSupplier input) {
+                final AtomicLong count = new AtomicLong();
+                countByInput.put(input, count);
+
+                xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, new NodeListener() {
+                    @Override
+                    public void onNode(@NotNull XMLNode node) {
+                        count.incrementAndGet();
+                    }
+                });
+            }
+        });
+
+        // then
+        for (int index = 1; index <= 32; index++)
+            assertThat(countByInput.get(inputs.get(index - 1)).get(), is((long)index));
+    }
+
+    @Test
+    public void givenFailingDocumentsBatchSlurperParsesTheOtherOnesAndReportsFailures() throws Exception {
+        // given
+        final ByteArrayInputSupplier malformedInput = new ByteArrayInputSupplier("<Records><Record></Records>".getBytes("UTF-8"));
+        final ByteArrayInputSupplier validInput = new ByteArrayInputSupplier(generateRecords(3));
+        final InputSupplier unreadableInput = new InputSupplier() {
+            @Override
+            public InputStream supply() throws IOException {
+                throw new IOException();
+            }
+        };
+
+        final AtomicLong count = new AtomicLong();
+
+        // when
+        try {
+            XMLSlurperFactory.getInstance().createXMLBatchSlurper(executorService).parse(Arrays.asList(malformedInput, validInput, unreadableInput), new SlurpTemplate<InputSupplier>() {
+                @Override
+                public void apply(@NotNull XMLSlurper xmlSlurper, @NotNull InputSupplier input) {
+                    xmlSlurper.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, new NodeListener() {
+                        @Override
+                        public void onNode(@NotNull XMLNode node) {
+                            count.incrementAndGet();
+                        }
+                    });
+                }
+            });
+
+            fail();
+        } catch (BatchParsingException e) {
+            // then
+            assertThat(count.get(), is(3L));
+            assertThat(e.getExceptionByInput().size(), is(2));
+            assertThat(e.getExceptionByInput().keySet().iterator().next(), is((InputSupplier)malformedInput));
+            assertThat(e.getExceptionByInput().get(unreadableInput), is(instanceOf(IOException.class)));
+        }
+    }
+
+    @Test
+    public void givenSchemaBatchSlurperValidatesEveryFile() throws Exception {
+        // given
+        List<InputSupplier> inputs = InputSupplierFactory.getInstance().createInputSuppliers(Arrays.asList(
+                getResourceAsFile(this, "borderTestCase.xml"), getResourceAsFile(this, "borderTestCase.xml")));
+
+        final AtomicLong count = new AtomicLong();
+
+        // when
+        XMLSlurperFactory.getInstance().createXMLBatchSlurper(executorService).parse(inputs, getResourceAsFile(this, "borderTestCaseSchema.xsd"), new SlurpTemplate<InputSupplier>() {
+            @Override
+            public void apply(@NotNull XMLSlurper xmlSlurper, @NotNull InputSupplier input) {
+                xmlSlurper.getNodes("ObjectTree", "OtherObject").findAll(null, new NodeListener() {
+                    @Override
+                    public void onNode(@NotNull XMLNode node) {
+                        count.incrementAndGet();
+                    }
+                });
+            }
+        });
+
+        // then
+        assertThat(count.get(), is(2L));
+    }
+
+    @After
+    public void teardown() {
+        executorService.shutdown();
+    }
+
+    private static class ByteArrayInputSupplier implements InputSupplier {
+        private final byte[] document;
+
+        private ByteArrayInputSupplier(byte[] document) {
+            this.document = document;
+        }
+
+        @Override
+        public InputStream supply() {
+            return new ByteArrayInputStream(document);
+        }
+    }
+}
@@ -4,26 +4,40 @@ import org.junit.After;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
+import org.xs4j.CorpusGenerator;
 import org.xs4j.XMLNode;
+import org.xs4j.XMLNodeFactory;
 import org.xs4j.xmlslurper.*;
 import org.xs4j.util.NotNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 import static org.xs4j.TestUtil.*;
+import static org.xs4j.TestUtil.generateRecords;
 
 /**
  * Created by mturski on 11/10/2016.
  */
 public class XMLSlurperIT {
-    private XMLSlurper parser = XMLSlurperFactory.getInstance().createXMLSlurper();
+    private XMLSourceSlurper parser = XMLSlurperFactory.getInstance().createXMLSourceSlurper();
 
     private NodeListener listener;
 
@@ -205,6 +219,51 @@ public class XMLSlurperIT {
         verifyNoMoreInteractions(listener);
     }
 
+    @Test
+    public void givenDeeplyRecursiveDocumentFindAllReturnsEveryNestedNodeEndInDocumentOrder() throws Exception {
+        // given
+        int depth = 1000;
+        StringBuilder document = new StringBuilder("<root>");
+        for (int i = 0; i < depth; i++)
+            document.append("<a><b>");
+        for (int i = 0; i < depth; i++)
+            document.append("</b><a/></a>");
+        document.append("</root>");
+
+        final List<String> startNodes = new ArrayList<String>();
+        final List<String> endNodes = new ArrayList<String>();
+
+        // when
+        getNodes("**", "a").findAll(new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                startNodes.add(node.getId() + "@" + node.getDepth());
+            }
+        }, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                endNodes.add(node.getId() + "@" + node.getDepth());
+            }
+        });
+        parser.parse(new ByteArrayInputStream(document.toString().getBytes("UTF-8")));
+
+        // then
+        List<String> expectedStartNodes = new ArrayList<String>();
+        List<String> expectedEndNodes = new ArrayList<String>();
+        for (int i = 0; i < depth; i++)
+            expectedStartNodes.add(2 * i + 1 + "@" + (2 * i + 2));
+        for (int i = depth - 1; i >= 0; i--) {
+            // the empty sibling of b is read only once b ends, after all the nodes nested in it
+            long leafId = 3L * depth - i;
+            expectedStartNodes.add(leafId + "@" + (2 * i + 3));
+            expectedEndNodes.add(leafId + "@" + (2 * i + 3));
+            expectedEndNodes.add(2 * i + 1 + "@" + (2 * i + 2));
+        }
+
+        assertThat(startNodes, is(expectedStartNodes));
+        assertThat(endNodes, is(expectedEndNodes));
+    }
+
     @Test
     public void givenSlurpAttributeOnInitialSlurpNodeFindAllReturnsAllNodesWithThatAttribute() throws Exception {
         // given
@@ -469,6 +528,349 @@ public class XMLSlurperIT {
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    public void givenTextRetentionLimitedToAlignedNodesOnlyAlignedNodesHaveText() throws Exception {
+        // given
+        parser = XMLSlurperFactory.getInstance().limitTextRetentionToAlignedNodes().createXMLSourceSlurper();
+        listener = mock(NodeListener.class);
+
+        // when
+        getNodes("ObjectTree", "Object").findAll(null, listener);
+        parser.parse(getResource(this, "simpleTestCase.xml"));
+
+        // then
+        ArgumentCaptor<XMLNode> nodeCaptor = ArgumentCaptor.forClass(XMLNode.class);
+        verify(listener).onNode(nodeCaptor.capture());
+        verifyNoMoreInteractions(listener);
+
+        XMLNode actualObject = nodeCaptor.getValue();
+
+        assertThat(actualObject.getText(), is("attrValue"));
+        assertNull(actualObject.getParent().getText());
+    }
+
+    @Test
+    public void givenAttributeRetentionLimitedToAlignedNodesOnlyAlignedNodesHaveAttributes() throws Exception {
+        // given
+        parser = XMLSlurperFactory.getInstance().limitAttributeRetentionToAlignedNodes().createXMLSourceSlurper();
+        listener = mock(NodeListener.class);
+
+        // when
+        getNodes("Transport", "*", "Engine").attr("type").is("Turbofan").findAll(null, listener);
+        parser.parse(getResource(this, "siblingsTestCase.xml"));
+
+        // then
+        ArgumentCaptor<XMLNode> nodeCaptor = ArgumentCaptor.forClass(XMLNode.class);
+        verify(listener).onNode(nodeCaptor.capture());
+        verifyNoMoreInteractions(listener);
+
+        XMLNode actualEngine = nodeCaptor.getValue();
+
+        assertThat(actualEngine.getAttribute("type"), is("Turbofan"));
+        assertThat(actualEngine.getParent().getLocalName(), is("Plane"));
+        assertThat(actualEngine.getParent().getAttributes().isEmpty(), is(true));
+    }
+
+    @Test
+    public void givenNodeRecyclingEnabledNextParsingDoesNotReuseNodesOfPreviousDocument() throws Exception {
+        // given
+        parser = XMLSlurperFactory.getInstance().enableNodeRecycling().createXMLSourceSlurper();
+        final List<XMLNode> nodes = new ArrayList<XMLNode>();
+        NodeListener nodeListener = new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                nodes.add(node);
+            }
+        };
+        getNodes("Transport").findAll(nodeListener, null);
+        parser.parse(getResource(this, "siblingsTestCase.xml"));
+
+        // when
+        getNodes("Transport").findAll(nodeListener, null);
+        parser.parse(getResource(this, "siblingsTestCase.xml"));
+
+        // then
+        assertThat(nodes.size(), is(2));
+        assertThat(nodes.get(0) != nodes.get(1), is(true));
+    }
+
+    @Test
+    public void givenNodeRecyclingEnabledSiblingsShareNodeWhileCopiesKeepTheirData() throws Exception {
+        // given
+        parser = XMLSlurperFactory.getInstance().enableNodeRecycling().createXMLSourceSlurper();
+        final List<XMLNode> nodes = new ArrayList<XMLNode>();
+        final List<XMLNode> copies = new ArrayList<XMLNode>();
+
+        // when
+        getNodes("Transport", "*").findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                nodes.add(node);
+                copies.add(XMLNodeFactory.getInstance().copyNode(node));
+            }
+        });
+        parser.parse(getResource(this, "siblingsTestCase.xml"));
+
+        // then
+        assertThat(nodes.size(), is(2));
+        assertSame(nodes.get(0), nodes.get(1));
+
+        XMLNode car = copies.get(0);
+        assertThat(car.getId(), is(1L));
+        assertThat(car.getLocalName(), is("Car"));
+        assertThat(car.getAttribute("manufacturer"), is("Toyota"));
+        assertThat(car.getParent().getLocalName(), is("Transport"));
+
+        XMLNode plane = copies.get(1);
+        assertThat(plane.getId(), is(5L));
+        assertThat(plane.getLocalName(), is("Plane"));
+        assertThat(plane.getPosition(), is(2L));
+        assertThat(plane.getAttribute("manufacturer"), is("Boeing"));
+    }
+
+    @Test
+    public void givenIteratedSlurpNodeIteratorYieldsMatchingNodesInDocumentOrder() throws Exception {
+        // given
+        NodeIterator iterator = parser.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).iterate(new ByteArrayInputStream(generateRecords(100L)));
+
+        // when
+        List<String> ids = new ArrayList<String>();
+        while (iterator.hasNext())
+            ids.add(iterator.next().getAttribute(CorpusGenerator.ID));
+
+        // then
+        assertThat(ids.size(), is(100));
+        for (int index = 0; index < ids.size(); index++)
+            assertThat(ids.get(index), is(String.valueOf(index)));
+    }
+
+    @Test
+    public void givenClosedIteratorParsingEndsAndInputStreamIsClosed() throws Exception {
+        // given
+        final boolean[] isClosed = new boolean[1];
+        InputStream inputStream = new ByteArrayInputStream(generateRecords(100L)) {
+            @Override
+            public void close() {
+                isClosed[0] = true;
+            }
+        };
+        NodeIterator iterator = parser.getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).iterate(inputStream);
+
+        // when
+        iterator.next();
+        XMLNode node = iterator.next();
+        iterator.close();
+
+        // then
+        assertThat(node.getAttribute(CorpusGenerator.ID), is("1"));
+        assertThat(isClosed[0], is(true));
+        assertThat(iterator.hasNext(), is(false));
+    }
+
+    @Test(expected = XMLSlurperRuntimeException.class)
+    public void givenMalformedDocumentIteratorThrowsException() throws Exception {
+        NodeIterator iterator = parser.getNodes("**").iterate(new ByteArrayInputStream("<Records><Record></Records>".getBytes("UTF-8")));
+
+        while (iterator.hasNext())
+            iterator.next();
+    }
+
+    @Test
+    public void givenFileParseReadsItThroughMemoryMapping() throws Exception {
+        // given
+        listener = mock(NodeListener.class);
+
+        // when
+        getNodes("ObjectTree", "Object").findAll(listener);
+        parser.parse(getResourceAsFile(this, "simpleTestCase.xml"));
+
+        // then
+        XMLNode firstObject = createNode(1L, "Object");
+
+        verify(listener, times(2)).onNode(firstObject);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void givenFileAndSchemaFileParseValidatesIt() throws Exception {
+        // given
+        listener = mock(NodeListener.class);
+
+        // when
+        getNodes("**").findAll(listener);
+        parser.parse(getResourceAsFile(this, "borderTestCase.xml"), getResourceAsFile(this, "borderTestCaseSchema.xsd"));
+
+        // then
+        verify(listener, atLeastOnce()).onNode(any(XMLNode.class));
+    }
+
+    @Test
+    public void givenGzipCompressedFileParseDecompressesIt() throws Exception {
+        // given
+        File file = File.createTempFile("xmlSlurperIT", ".xml.gz");
+        file.deleteOnExit();
+        OutputStream outputStream = new GZIPOutputStream(new FileOutputStream(file));
+        outputStream.write(generateRecords(1000L));
+        outputStream.close();
+
+        RecordCountingListener recordCountingListener = new RecordCountingListener();
+
+        // when
+        getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, recordCountingListener);
+        parser.parse(file);
+
+        // then
+        assertThat(recordCountingListener.count, is(1000L));
+    }
+
+    @Test
+    public void givenZlibCompressedFileParseDecompressesIt() throws Exception {
+        // given
+        File file = File.createTempFile("xmlSlurperIT", ".xml.z");
+        file.deleteOnExit();
+        OutputStream outputStream = new DeflaterOutputStream(new FileOutputStream(file));
+        outputStream.write(generateRecords(1000L));
+        outputStream.close();
+
+        RecordCountingListener recordCountingListener = new RecordCountingListener();
+
+        // when
+        getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, recordCountingListener);
+        parser.parse(file);
+
+        // then
+        assertThat(recordCountingListener.count, is(1000L));
+    }
+
+    @Test
+    public void givenByteArrayParseReadsItInPlace() throws Exception {
+        // given
+        RecordCountingListener recordCountingListener = new RecordCountingListener();
+
+        // when
+        getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, recordCountingListener);
+        parser.parse(generateRecords(100L));
+
+        // then
+        assertThat(recordCountingListener.count, is(100L));
+    }
+
+    @Test
+    public void givenDirectByteBufferParseReadsRemainingBytesAndLeavesPositionUntouched() throws Exception {
+        // given
+        byte[] document = generateRecords(100L);
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(document.length + 3);
+        byteBuffer.put(new byte[] {'-', '-', '-'}).put(document).flip();
+        byteBuffer.position(3);
+
+        RecordCountingListener recordCountingListener = new RecordCountingListener();
+
+        // when
+        getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, recordCountingListener);
+        parser.parse(byteBuffer);
+
+        // then
+        assertThat(recordCountingListener.count, is(100L));
+        assertThat(byteBuffer.position(), is(3));
+    }
+
+    @Test
+    public void givenCharacterSequencesParseReadsThemInPlace() throws Exception {
+        // given
+        String document = new String(generateRecords(100L), "UTF-8");
+        CharSequence[] sequences = {document, new StringBuilder(document), CharBuffer.wrap("--" + document).subSequence(2, document.length() + 2)};
+
+        for (CharSequence sequence : sequences) {
+            RecordCountingListener recordCountingListener = new RecordCountingListener();
+
+            // when
+            getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, recordCountingListener);
+            parser.parse(sequence);
+
+            // then
+            assertThat(recordCountingListener.count, is(100L));
+        }
+    }
+
+    @Test
+    public void givenCharArrayParseReadsItInPlace() throws Exception {
+        // given
+        RecordCountingListener recordCountingListener = new RecordCountingListener();
+
+        // when
+        getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).findAll(null, recordCountingListener);
+        parser.parse(new String(generateRecords(100L), "UTF-8").toCharArray());
+
+        // then
+        assertThat(recordCountingListener.count, is(100L));
+    }
+
+    @Test
+    public void givenNodeIndexRangeFindAllReturnsNodesWithinRange() throws Exception {
+        // given
+        final List<String> ids = new ArrayList<String>();
+
+        // when
+        getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(3L, 5L).findAll(null, new NodeListener() {
+            @Override
+            public void onNode(@NotNull XMLNode node) {
+                ids.add(node.getAttribute(CorpusGenerator.ID));
+            }
+        });
+        parser.parse(generateRecords(100L));
+
+        // then
+        assertThat(ids.size(), is(3));
+        assertThat(ids.get(0), is("2"));
+        assertThat(ids.get(2), is("4"));
+    }
+
+    @Test
+    public void givenNodeIndexRangeOfRootChildrenParseEndsOnceRangeHasBeenPassed() throws Exception {
+        // given
+        byte[] document = generateRecords(100000L);
+        final long[] readCount = new long[1];
+        InputStream inputStream = new ByteArrayInputStream(document) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int count = super.read(b, off, len);
+                if (count > 0)
+                    readCount[0] += count;
+
+                return count;
+            }
+        };
+        RecordCountingListener recordCountingListener = new RecordCountingListener();
+
+        // when
+        getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(1L, 100L).findAll(null, recordCountingListener);
+        parser.parse(inputStream);
+
+        // then
+        assertThat(recordCountingListener.count, is(100L));
+        assertThat(readCount[0] < document.length / 100, is(true));
+    }
+
+    @Test
+    public void givenNthNodeOfNestedPathParseDoesNotEndEarly() throws Exception {
+        // given
+        NodeListener listener = mock(NodeListener.class);
+
+        // when
+        getNodes("ObjectTree", "Object", "*").get(1L).findAll(null, listener);
+        parser.parse(new ByteArrayInputStream("<ObjectTree><Object><a/><b/></Object><Object><c/></Object></ObjectTree>".getBytes("UTF-8")));
+
+        // then
+        verify(listener).onNode(createNode(2L, "a"));
+        verify(listener).onNode(createNode(5L, "c"));
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenEmptyNodeIndexRangeGetThrowsException() {
+        getNodes(CorpusGenerator.RECORDS, CorpusGenerator.RECORD).get(5L, 4L);
+    }
+
     @Test(expected = FileNotFoundException.class)
     public void givenDoctypeAndNoDTDParseThrowsException() throws Exception {
         parser.parse(getResource(this, "noDTDTestCase.xml"));
@@ -497,4 +899,13 @@ public class XMLSlurperIT {
 
         parser.parse(getResource(this, resourcePath));
     }
+
+    private static class RecordCountingListener implements NodeListener {
+        private long count;
+
+        @Override
+        public void onNode(@NotNull XMLNode node) {
+            count++;
+        }
+    }
 }